@@ -0,0 +1,96 @@
+package com.audit.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.audit.utility.AuditDecoder;
+import com.google.gson.Gson;
+import com.model.entity.Audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark of the Gson decoding of {@link Audit} payloads taken from KAFKA
+ * records, as done by {@code AuditKafkaServiceImpl.consumeAudit}.
+ *
+ * <p>
+ * {@link #fromJson()} decodes with the application {@link Gson} as is, and
+ * {@link #interned()} with the {@link AuditDecoder} of the ingest path. Run
+ * with {@code -prof gc} to compare their allocation rates.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditDeserializationBenchmark {
+
+	/**
+	 * Size of the request and response bodies in bytes
+	 */
+	@Param({ "256", "4096", "65536" })
+	public int bodySize;
+
+	/**
+	 * {@link Gson} configured like the application bean
+	 */
+	private Gson g;
+
+	/**
+	 * {@link AuditDecoder} interning the low-cardinality fields of the payload
+	 */
+	private AuditDecoder decoder;
+
+	/**
+	 * KAFKA record carrying the audit payload
+	 */
+	private ConsumerRecord<String, String> record;
+
+	/**
+	 * Method to prepare the payload
+	 */
+	@Setup
+	public void setup() {
+		g = AuditPayloads.gson();
+		decoder = new AuditDecoder(g, new SimpleMeterRegistry(),
+				List.of("channelId", "serviceName", "endPoint", "code", "userName"), 4096, 128);
+		record = AuditPayloads.record(AuditPayloads.payload(bodySize, 1), 0);
+	}
+
+	/**
+	 * Decodes the audit of the record
+	 *
+	 * @return Decoded {@link Audit}
+	 */
+	@Benchmark
+	public Audit fromJson() {
+		return g.fromJson(record.value(), Audit.class);
+	}
+
+	/**
+	 * Decodes the audit of the record, interning its low-cardinality fields
+	 *
+	 * @return Decoded {@link Audit}
+	 */
+	@Benchmark
+	public Audit interned() {
+		return decoder.decode(record.value());
+	}
+}
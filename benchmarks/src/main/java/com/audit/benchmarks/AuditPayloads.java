@@ -0,0 +1,75 @@
+package com.audit.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import com.google.gson.Gson;
+
+/**
+ * Stand-in audit payloads and KAFKA records shared by the benchmarks.
+ *
+ * <p>
+ * The payload is read from the file named by the {@code bench.audit.payload}
+ * system property when it is set, so real production samples can be replayed;
+ * otherwise a synthetic audit with request and response bodies of the requested
+ * size is generated.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+final class AuditPayloads {
+
+	/**
+	 * Utility class
+	 */
+	private AuditPayloads() {
+	}
+
+	/**
+	 * Method to create the {@link Gson} instance configured like the
+	 * {@code g} bean of {@code AppConfig}
+	 *
+	 * @return {@link Gson} object
+	 */
+	static Gson gson() {
+		return new Gson().newBuilder().disableHtmlEscaping().serializeNulls().serializeSpecialFloatingPointValues()
+				.setPrettyPrinting().create();
+	}
+
+	/**
+	 * Method to get an audit payload
+	 *
+	 * @param bodySize Size of the synthetic request and response bodies
+	 * @param seq      Sequence used to make the reference number unique
+	 * @return Audit JSON payload
+	 */
+	static String payload(int bodySize, long seq) {
+		String file = System.getProperty("bench.audit.payload");
+		if (file != null) {
+			try {
+				return Files.readString(Path.of(file), StandardCharsets.UTF_8);
+			} catch (Exception e) {
+				throw new IllegalStateException("Unable to read " + file, e);
+			}
+		}
+
+		String body = "{\"data\":\"" + "x".repeat(Math.max(0, bodySize - 11)) + "\"}";
+		return "{\"refNo\":\"REF" + seq + "\",\"channelId\":\"CHANNEL01\",\"serviceName\":\"enc-service\","
+				+ "\"endPoint\":\"/enc-service/encrypt\",\"code\":\"S00\",\"userName\":\"system\","
+				+ "\"request\":" + new Gson().toJson(body) + ",\"response\":" + new Gson().toJson(body) + "}";
+	}
+
+	/**
+	 * Method to wrap a payload in a KAFKA record of the audit topic
+	 *
+	 * @param payload Audit JSON payload
+	 * @param offset  Offset of the record
+	 * @return {@link ConsumerRecord} object
+	 */
+	static ConsumerRecord<String, String> record(String payload, long offset) {
+		return new ConsumerRecord<>("audit-topic", 0, offset, null, payload);
+	}
+}
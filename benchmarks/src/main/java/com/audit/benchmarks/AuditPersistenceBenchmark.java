@@ -0,0 +1,191 @@
+package com.audit.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.audit.repo.AuditRepo;
+import com.google.gson.Gson;
+import com.model.entity.Audit;
+
+/**
+ * Benchmark of per-record versus batched persistence of audits through
+ * {@link AuditRepo}, the JPA path of the ingest.
+ *
+ * <p>
+ * {@link #perRecord()} stores one audit with {@code save} in its own
+ * transaction, as {@code JournalServiceImpl.persist} does for every record,
+ * while {@link #batched()} stores {@value #BATCH_SIZE} audits with one
+ * {@code saveAll} in a single transaction, as the journal drain and the replay
+ * do. Both are normalized per audit with {@link OperationsPerInvocation}, so
+ * their scores compare directly. Each audit is decoded from its payload first,
+ * as on the ingest path.
+ * </p>
+ *
+ * <p>
+ * A minimal Spring context holds the data source, Hibernate with the
+ * {@code META-INF/orm.xml} of the application, so the request and response
+ * bodies go through {@code PayloadCompressionConverter}, and {@link AuditRepo}.
+ * The context reads {@code audit-benchmark} configuration files rather than
+ * {@code application.yml}, so the JDBC batch size and insert ordering are
+ * passed explicitly with the defaults of {@code application.yml}, a batch size
+ * of {@value #BATCH_SIZE} and {@code order_inserts=true}; keep them in step
+ * when those change. It uses an in-process H2 data base with the schema generated from the
+ * entities by default, so the numbers show the JPA, per-statement and
+ * per-commit overhead rather than the network round trip of the real data
+ * base; point {@code bench.jdbc.url}, {@code bench.jdbc.user},
+ * {@code bench.jdbc.password} and {@code bench.ddl-auto=none} at a real data
+ * base to include it.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditPersistenceBenchmark {
+
+	/**
+	 * Number of audits stored by one {@code saveAll}, the default
+	 * {@code config.jpa.batch-size}
+	 */
+	private static final int BATCH_SIZE = 100;
+
+	/**
+	 * Sequence making the data base name unique per trial
+	 */
+	private static final AtomicInteger DATA_BASES = new AtomicInteger();
+
+	/**
+	 * Size of the request and response bodies in bytes
+	 */
+	@Param({ "1024" })
+	public int bodySize;
+
+	/**
+	 * Spring context holding the repository
+	 */
+	private ConfigurableApplicationContext context;
+
+	/**
+	 * {@link AuditRepo} under test
+	 */
+	private AuditRepo auditRepo;
+
+	/**
+	 * {@link Gson} object decoding the payloads
+	 */
+	private Gson g;
+
+	/**
+	 * Sequence of the reference numbers
+	 */
+	private long seq;
+
+	/**
+	 * Method to start the Spring context and create the audit table
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		SpringApplication application = new SpringApplication(PersistenceContext.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		context = application.run("--spring.config.name=audit-benchmark", "--spring.main.banner-mode=off",
+				"--logging.level.root=WARN",
+				"--spring.datasource.url=" + System.getProperty("bench.jdbc.url",
+						"jdbc:h2:mem:audit" + DATA_BASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1"),
+				"--spring.datasource.username=" + System.getProperty("bench.jdbc.user", "sa"),
+				"--spring.datasource.password=" + System.getProperty("bench.jdbc.password", ""),
+				"--spring.jpa.hibernate.ddl-auto=" + System.getProperty("bench.ddl-auto", "create-drop"),
+				"--spring.jpa.open-in-view=false",
+				"--spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+				"--spring.jpa.properties.hibernate.jdbc.batch_size=" + BATCH_SIZE,
+				"--spring.jpa.properties.hibernate.order_inserts=true");
+		auditRepo = context.getBean(AuditRepo.class);
+		g = AuditPayloads.gson();
+	}
+
+	/**
+	 * Method to close the Spring context, dropping the audit table
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	/**
+	 * Stores one audit in its own transaction
+	 *
+	 * @return Stored {@link Audit}
+	 */
+	@Benchmark
+	public Audit perRecord() {
+		return auditRepo.save(next());
+	}
+
+	/**
+	 * Stores {@value #BATCH_SIZE} audits in a single transaction
+	 *
+	 * @return Stored audits
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<Audit> batched() {
+		List<Audit> audits = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++)
+			audits.add(next());
+		return auditRepo.saveAll(audits);
+	}
+
+	/**
+	 * Method to decode the next audit
+	 *
+	 * @return New, unsaved {@link Audit}
+	 */
+	private Audit next() {
+		return g.fromJson(AuditPayloads.payload(bodySize, seq++), Audit.class);
+	}
+
+	/**
+	 * Spring context of the benchmark: the data source, JPA and
+	 * {@link AuditRepo}, without the rest of the application
+	 */
+	@SpringBootConfiguration
+	@ImportAutoConfiguration({ DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+			TransactionAutoConfiguration.class })
+	@EntityScan(basePackages = "com.model.entity")
+	@EnableJpaRepositories(basePackageClasses = AuditRepo.class, includeFilters = @ComponentScan.Filter(
+			type = FilterType.ASSIGNABLE_TYPE, classes = AuditRepo.class))
+	static class PersistenceContext {
+	}
+}
@@ -0,0 +1,175 @@
+package com.audit.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import com.audit.services.impl.TokenServiceImpl;
+import com.audit.utility.CredentialCache;
+
+/**
+ * Benchmark of the authentication paths of the REST end points.
+ *
+ * <ul>
+ * <li>{@link #bcrypt()} - A plain BCrypt verification at the given
+ * strength</li>
+ * <li>{@link #basic()} - HTTP Basic through {@link DaoAuthenticationProvider},
+ * as configured by {@code AuthProviderImpl}, on a cache miss</li>
+ * <li>{@link #basicCached()} - HTTP Basic served by {@link CredentialCache}</li>
+ * <li>{@link #bearer()} - A bearer token resolved by
+ * {@link TokenServiceImpl}</li>
+ * </ul>
+ *
+ * <p>
+ * The users are held by an {@link InMemoryUserDetailsManager} standing in for
+ * the data base backed {@code UserDetailService}. Pass
+ * {@code -p strength=<bcrypt.strength>} to measure the strength configured in
+ * production.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+	/**
+	 * User name of the stand-in user
+	 */
+	private static final String USER_NAME = "bench";
+
+	/**
+	 * Raw password of the stand-in user
+	 */
+	private static final String PASSWORD = "bench-password";
+
+	/**
+	 * Secret signing the bearer tokens
+	 */
+	private static final String TOKEN_SECRET = "bench-token-secret-of-at-least-32-bytes";
+
+	/**
+	 * BCrypt strength of the stored password
+	 */
+	@Param({ "10" })
+	public int strength;
+
+	/**
+	 * Encoder of the configured strength
+	 */
+	private BCryptPasswordEncoder encoder;
+
+	/**
+	 * BCrypt hash of the password
+	 */
+	private String hash;
+
+	/**
+	 * Provider verifying the credentials with BCrypt
+	 */
+	private DaoAuthenticationProvider provider;
+
+	/**
+	 * Cache of verified credentials
+	 */
+	private CredentialCache credentialCache;
+
+	/**
+	 * Token store
+	 */
+	private TokenServiceImpl tokenService;
+
+	/**
+	 * Token issued to the user
+	 */
+	private String token;
+
+	/**
+	 * Method to create the user, provider, cache and token
+	 */
+	@Setup
+	public void setup() {
+		encoder = new BCryptPasswordEncoder(strength);
+		hash = encoder.encode(PASSWORD);
+
+		provider = new DaoAuthenticationProvider(new InMemoryUserDetailsManager(
+				User.withUsername(USER_NAME).password(hash).authorities("SYSTEM").build()));
+		provider.setPasswordEncoder(encoder);
+
+		credentialCache = new CredentialCache(3600, 1000);
+		credentialCache.authenticate(request(), provider);
+
+		// No producer: the benchmark never revokes, so nothing is broadcast
+		tokenService = new TokenServiceImpl(TOKEN_SECRET, 3600, 1000, credentialCache, null, "token-revocation-topic");
+		token = tokenService.issue(provider.authenticate(request()));
+	}
+
+	/**
+	 * Verifies the password with BCrypt
+	 *
+	 * @return {@code true} if the password matches
+	 */
+	@Benchmark
+	public boolean bcrypt() {
+		return encoder.matches(PASSWORD, hash);
+	}
+
+	/**
+	 * Authenticates the credentials without the cache
+	 *
+	 * @return Authenticated {@link Authentication}
+	 */
+	@Benchmark
+	public Authentication basic() {
+		return provider.authenticate(request());
+	}
+
+	/**
+	 * Authenticates the credentials through the cache
+	 *
+	 * @return Authenticated {@link Authentication}
+	 */
+	@Benchmark
+	public Authentication basicCached() {
+		return credentialCache.authenticate(request(), provider);
+	}
+
+	/**
+	 * Authenticates the bearer token
+	 *
+	 * @return Authentication of the token
+	 */
+	@Benchmark
+	public Object bearer() {
+		return tokenService.authenticate(token);
+	}
+
+	/**
+	 * Method to create the authentication request of the user
+	 *
+	 * @return Unauthenticated {@link UsernamePasswordAuthenticationToken}
+	 */
+	private static UsernamePasswordAuthenticationToken request() {
+		return UsernamePasswordAuthenticationToken.unauthenticated(USER_NAME, PASSWORD);
+	}
+}
@@ -0,0 +1,112 @@
+package com.audit.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.audit.advice.LoggingAspect;
+import com.audit.services.TokenService;
+import com.audit.services.impl.TokenServiceImpl;
+import com.audit.utility.CredentialCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark of the overhead of {@link LoggingAspect} on a service call.
+ *
+ * <p>
+ * The same {@link TokenServiceImpl} is called directly and through an AspectJ
+ * proxy advised by {@link LoggingAspect}, the way Spring wires it in the
+ * application. The difference between the two is the cost of the tracing
+ * aspect on every service and repository call. Run with
+ * {@code -Dlog4j2.level=DEBUG} to include the sampled detailed logging.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+	/**
+	 * Secret signing the bearer tokens
+	 */
+	private static final String TOKEN_SECRET = "bench-token-secret-of-at-least-32-bytes";
+
+	/**
+	 * One in {@code sampleRate} invocations is logged in detail
+	 */
+	@Param({ "100" })
+	public int sampleRate;
+
+	/**
+	 * Service called without the aspect
+	 */
+	private TokenService direct;
+
+	/**
+	 * Service called through the aspect
+	 */
+	private TokenService traced;
+
+	/**
+	 * Token authenticated by the benchmarks
+	 */
+	private String token;
+
+	/**
+	 * Method to create the plain and the advised service
+	 */
+	@Setup
+	public void setup() {
+		// No producer: the benchmark never revokes, so nothing is broadcast
+		TokenServiceImpl target = new TokenServiceImpl(TOKEN_SECRET, 900, 1000, new CredentialCache(60, 1000), null,
+				"token-revocation-topic");
+		token = target.issue(UsernamePasswordAuthenticationToken.authenticated("bench", null,
+				List.of(new SimpleGrantedAuthority("SYSTEM"))));
+		direct = target;
+
+		AspectJProxyFactory factory = new AspectJProxyFactory(target);
+		factory.addInterface(TokenService.class);
+		factory.addAspect(new LoggingAspect(new SimpleMeterRegistry(), sampleRate));
+		traced = factory.getProxy();
+	}
+
+	/**
+	 * Calls the service directly
+	 *
+	 * @return Authentication of the token
+	 */
+	@Benchmark
+	public Object direct() {
+		return direct.authenticate(token);
+	}
+
+	/**
+	 * Calls the service through the tracing aspect
+	 *
+	 * @return Authentication of the token
+	 */
+	@Benchmark
+	public Object traced() {
+		return traced.authenticate(token);
+	}
+}
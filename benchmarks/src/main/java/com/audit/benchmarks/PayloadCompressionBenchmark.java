@@ -0,0 +1,127 @@
+package com.audit.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.audit.utility.PayloadCompressionConverter;
+
+/**
+ * Benchmark of the CPU cost of {@link PayloadCompressionConverter} on the
+ * ingest path ({@link #compress()}) and the read path ({@link #expand()}).
+ *
+ * <p>
+ * The storage saved is printed once per trial as the ratio of the column to
+ * the body size. The body is read from the file named by the
+ * {@code bench.audit.body} system property when it is set, so real request or
+ * response bodies can be measured; otherwise a synthetic JSON body of the
+ * requested size is generated, with repeated keys and random values. A
+ * dictionary is used when {@code bench.audit.dictionary} names one.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadCompressionBenchmark {
+
+	/**
+	 * Size of the synthetic body in characters
+	 */
+	@Param({ "1024", "8192", "65536" })
+	public int bodySize;
+
+	/**
+	 * Deflate compression level
+	 */
+	@Param({ "1", "6" })
+	public int level;
+
+	/**
+	 * Converter under test
+	 */
+	private PayloadCompressionConverter converter;
+
+	/**
+	 * Body to compress
+	 */
+	private String body;
+
+	/**
+	 * Compressed column value of {@link #body}
+	 */
+	private String column;
+
+	/**
+	 * Method to create the converter and the body, and print the ratio
+	 *
+	 * @throws Exception If the body or dictionary file cannot be read
+	 */
+	@Setup
+	public void setup() throws Exception {
+		String dictionary = System.getProperty("bench.audit.dictionary", "");
+		converter = new PayloadCompressionConverter(true, 1, level, List.of(dictionary));
+
+		String file = System.getProperty("bench.audit.body");
+		body = file != null ? Files.readString(Path.of(file), StandardCharsets.UTF_8) : body(bodySize);
+		column = converter.convertToDatabaseColumn(body);
+		System.out.printf("%nbody %d chars, column %d chars, ratio %.3f%n", body.length(), column.length(),
+				(double) column.length() / body.length());
+	}
+
+	/**
+	 * Compresses the body, as done when an audit is persisted
+	 *
+	 * @return Column value
+	 */
+	@Benchmark
+	public String compress() {
+		return converter.convertToDatabaseColumn(body);
+	}
+
+	/**
+	 * Expands the column, as done when an audit is read
+	 *
+	 * @return Body
+	 */
+	@Benchmark
+	public String expand() {
+		return converter.convertToEntityAttribute(column);
+	}
+
+	/**
+	 * Method to generate a JSON body of transactions
+	 *
+	 * @param size Size of the body in characters
+	 * @return JSON body
+	 */
+	private static String body(int size) {
+		SplittableRandom random = new SplittableRandom(42);
+		StringBuilder body = new StringBuilder(size + 256).append("{\"transactions\":[");
+		while (body.length() < size)
+			body.append("{\"txnId\":\"").append(Long.toHexString(random.nextLong())).append("\",\"amount\":")
+					.append(random.nextInt(1_000_000) / 100.0).append(",\"currency\":\"INR\",\"status\":\"")
+					.append(random.nextBoolean() ? "SUCCESS" : "PENDING").append("\",\"account\":\"")
+					.append(random.nextLong(1_000_000_000L, 9_999_999_999L)).append("\"},");
+		return body.append("{}]}").toString();
+	}
+}
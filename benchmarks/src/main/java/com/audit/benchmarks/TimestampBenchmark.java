@@ -0,0 +1,79 @@
+package com.audit.benchmarks;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the time stamp formatting of
+ * {@code CommonUtility.getCurrentTimeStamp()}.
+ *
+ * <p>
+ * {@link #perCall()} replicates the body of the utility, which compiles the
+ * {@code time.stamp.format} pattern on every call, because the utility reads the
+ * pattern from {@code AppProperties} that is only initialized inside the
+ * application. {@link #cachedFormatter()} formats with a formatter compiled
+ * once, for comparison.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimestampBenchmark {
+
+	/**
+	 * Value of the {@code time.stamp.format} property
+	 */
+	@Param({ "yyyy-MM-dd HH:mm:ss.SSS" })
+	public String pattern;
+
+	/**
+	 * Formatter compiled once
+	 */
+	private DateTimeFormatter formatter;
+
+	/**
+	 * Method to compile the formatter
+	 */
+	@Setup
+	public void setup() {
+		formatter = DateTimeFormatter.ofPattern(pattern);
+	}
+
+	/**
+	 * Formats the current time compiling the pattern on every call
+	 *
+	 * @return Current time stamp
+	 */
+	@Benchmark
+	public String perCall() {
+		return LocalDateTime.now().format(DateTimeFormatter.ofPattern(pattern));
+	}
+
+	/**
+	 * Formats the current time with the compiled formatter
+	 *
+	 * @return Current time stamp
+	 */
+	@Benchmark
+	public String cachedFormatter() {
+		return LocalDateTime.now().format(formatter);
+	}
+}
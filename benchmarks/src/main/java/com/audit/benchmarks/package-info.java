@@ -0,0 +1,28 @@
+/**
+ * This package contains the JMH benchmarks of the ingest and query hot paths
+ * of the {@code audit-service} application.
+ * 
+ * <p>
+ * The benchmarks run against local stand-ins, such as an in-process H2 data
+ * base and hand built KAFKA records, so they need no running infrastructure and
+ * regressions show up as numbers.
+ * </p>
+ * 
+ * <h2>Components</h2>
+ * <ul>
+ * <li>{@link com.audit.benchmarks.AuditDeserializationBenchmark} - Gson
+ * decoding of audit payloads</li>
+ * <li>{@link com.audit.benchmarks.AuditPersistenceBenchmark} - Per-record
+ * versus batched persistence through the JPA repository</li>
+ * <li>{@link com.audit.benchmarks.LoggingAspectBenchmark} - Overhead of the
+ * tracing aspect</li>
+ * <li>{@link com.audit.benchmarks.AuthenticationBenchmark} - BCrypt, cached
+ * credential and bearer token authentication</li>
+ * <li>{@link com.audit.benchmarks.TimestampBenchmark} - Time stamp
+ * formatting</li>
+ * </ul>
+ * 
+ * 
+ * @author Kabir Akware
+ */
+package com.audit.benchmarks;
@@ -0,0 +1,154 @@
+package com.audit.soak;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.stream.Collectors;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Probe of the GC pauses and the heap usage of the JVM.
+ *
+ * <p>
+ * Pauses are taken from the GC notifications of the JVM. Collections of the
+ * concurrent collectors that do not stop the application, such as the
+ * concurrent cycles of G1 and ZGC, are left out. The live heap is the heap in
+ * use right after a collection, which is what the application actually
+ * retains.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+class JvmProbe implements NotificationListener {
+
+	/**
+	 * Names of the heap memory pools
+	 */
+	private final Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+			.filter(pool -> pool.getType() == MemoryType.HEAP).map(MemoryPoolMXBean::getName)
+			.collect(Collectors.toSet());
+
+	/**
+	 * Number of pauses
+	 */
+	private final AtomicLong pauses = new AtomicLong();
+
+	/**
+	 * Total pause time in milliseconds
+	 */
+	private final AtomicLong pauseTotalMs = new AtomicLong();
+
+	/**
+	 * Longest pause in milliseconds
+	 */
+	private final LongAccumulator pauseMaxMs = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Highest heap in use, sampled
+	 */
+	private final LongAccumulator heapUsedMax = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Highest heap in use right after a collection
+	 */
+	private final LongAccumulator liveHeapMax = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Method to start listening to the GC notifications
+	 */
+	void start() {
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			if (gc instanceof NotificationEmitter emitter)
+				emitter.addNotificationListener(this, null, null);
+	}
+
+	/**
+	 * Method to clear the figures, e.g. at the end of the warm up
+	 */
+	void reset() {
+		pauses.set(0);
+		pauseTotalMs.set(0);
+		pauseMaxMs.reset();
+		heapUsedMax.reset();
+		liveHeapMax.reset();
+	}
+
+	/**
+	 * Method to sample the heap in use
+	 */
+	void sampleHeap() {
+		heapUsedMax.accumulate(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+	}
+
+	/**
+	 * Method to record a GC notification
+	 *
+	 * @param notification GC {@link Notification}
+	 * @param handback     Unused
+	 */
+	@Override
+	public void handleNotification(Notification notification, Object handback) {
+		if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+			return;
+
+		GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+				.from((CompositeData) notification.getUserData());
+		long live = info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+				.filter(pool -> heapPools.contains(pool.getKey())).map(pool -> pool.getValue())
+				.mapToLong(MemoryUsage::getUsed).sum();
+		liveHeapMax.accumulate(live);
+
+		if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles"))
+			return;
+		long duration = info.getGcInfo().getDuration();
+		pauses.incrementAndGet();
+		pauseTotalMs.addAndGet(duration);
+		pauseMaxMs.accumulate(duration);
+	}
+
+	/**
+	 * @return Number of pauses
+	 */
+	long pauses() {
+		return pauses.get();
+	}
+
+	/**
+	 * @return Total pause time in milliseconds
+	 */
+	long pauseTotalMs() {
+		return pauseTotalMs.get();
+	}
+
+	/**
+	 * @return Longest pause in milliseconds
+	 */
+	long pauseMaxMs() {
+		return pauseMaxMs.get();
+	}
+
+	/**
+	 * @return Highest heap in use in megabytes
+	 */
+	long heapUsedMaxMb() {
+		return heapUsedMax.get() >> 20;
+	}
+
+	/**
+	 * @return Highest live heap in megabytes
+	 */
+	long liveHeapMaxMb() {
+		return liveHeapMax.get() >> 20;
+	}
+}
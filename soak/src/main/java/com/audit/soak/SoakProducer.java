@@ -0,0 +1,171 @@
+package com.audit.soak;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * Producer of the soak load at a fixed rate and payload mix.
+ *
+ * <p>
+ * Messages are scheduled on a fixed timeline of {@code 1 / rate} seconds and
+ * the latency of an audit is measured from its scheduled time rather than from
+ * the time it was actually sent. When the producer falls behind, the delay is
+ * therefore counted against the service instead of being hidden, which keeps
+ * the latencies free of coordinated omission.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+class SoakProducer implements Runnable {
+
+	/**
+	 * Topic of the audit messages
+	 */
+	static final String AUDIT_TOPIC = "audit-topic";
+
+	/**
+	 * Topic of the log messages
+	 */
+	static final String LOG_TOPIC = "log-topic";
+
+	/**
+	 * Settings of the run
+	 */
+	private final SoakSettings settings;
+
+	/**
+	 * KAFKA producer of the load
+	 */
+	private final KafkaProducer<String, String> producer;
+
+	/**
+	 * Pre-built bodies by cumulative weight of the payload mix
+	 */
+	private final NavigableMap<Integer, String> bodies = new TreeMap<>();
+
+	/**
+	 * Sum of the weights of the payload mix
+	 */
+	private final int totalWeight;
+
+	/**
+	 * Scheduled {@link System#nanoTime()} of the audits not yet visible, by
+	 * reference number
+	 */
+	private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of messages produced
+	 */
+	private final AtomicLong produced = new AtomicLong();
+
+	/**
+	 * Flag to stop producing
+	 */
+	private volatile boolean stopped;
+
+	/**
+	 * Constructor to create the producer
+	 *
+	 * @param settings         Settings of the run
+	 * @param bootstrapServers Address of the KAFKA broker
+	 */
+	SoakProducer(SoakSettings settings, String bootstrapServers) {
+		this.settings = settings;
+
+		Properties props = new Properties();
+		props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+		props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+		props.put(ProducerConfig.ACKS_CONFIG, "all");
+		props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+		this.producer = new KafkaProducer<>(props);
+
+		int weight = 0;
+		for (Map.Entry<Integer, Integer> entry : settings.payloadMix().entrySet()) {
+			weight += entry.getValue();
+			bodies.put(weight, "{\\\"data\\\":\\\"" + "x".repeat(Math.max(0, entry.getKey() - 11)) + "\\\"}");
+		}
+		this.totalWeight = weight;
+	}
+
+	/**
+	 * Method producing the load until {@link #stop()} is called
+	 */
+	@Override
+	public void run() {
+		long interval = 1_000_000_000L / Math.max(1, settings.rate());
+		long next = System.nanoTime();
+		long seq = 0;
+		while (!stopped) {
+			long now = System.nanoTime();
+			if (now < next) {
+				LockSupport.parkNanos(next - now);
+				continue;
+			}
+
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			String body = bodies.higherEntry(random.nextInt(totalWeight)).getValue();
+			String refNo = settings.label() + "-" + seq++;
+			if (random.nextDouble() < settings.auditRatio()) {
+				pending.put(refNo, next);
+				producer.send(new ProducerRecord<>(AUDIT_TOPIC, refNo, audit(refNo, body)));
+			} else {
+				producer.send(new ProducerRecord<>(LOG_TOPIC, refNo, body));
+			}
+			produced.incrementAndGet();
+			next += interval;
+		}
+		producer.close();
+	}
+
+	/**
+	 * Method to stop producing
+	 */
+	void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Method to get the audits not yet visible
+	 *
+	 * @return Scheduled {@link System#nanoTime()} of the audits by reference
+	 *         number
+	 */
+	Map<String, Long> pending() {
+		return pending;
+	}
+
+	/**
+	 * Method to get the number of messages produced
+	 *
+	 * @return Messages produced so far
+	 */
+	long produced() {
+		return produced.get();
+	}
+
+	/**
+	 * Method to create an audit payload
+	 *
+	 * @param refNo Reference number of the audit
+	 * @param body  Request and response body, escaped as a JSON string
+	 * @return Audit JSON payload
+	 */
+	private static String audit(String refNo, String body) {
+		return "{\"refNo\":\"" + refNo + "\",\"channelId\":\"SOAK\",\"serviceName\":\"enc-service\","
+				+ "\"endPoint\":\"/enc-service/encrypt\",\"code\":\"S00\",\"userName\":\"soak\",\"request\":\""
+				+ body + "\",\"response\":\"" + body + "\"}";
+	}
+}
@@ -0,0 +1,116 @@
+package com.audit.soak;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Result of a soak run, and comparison of the runs saved in the report
+ * directory.
+ *
+ * <p>
+ * Each run is saved as {@code <label>.json}. The comparison lists every saved
+ * run in the order it was started, with the change of each figure against the
+ * baseline run, which is the run labelled {@code soak.baseline} or else the
+ * earliest one.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+record SoakReport(String label, long startedAt, Map<String, String> settings, double producedPerSecond,
+		double ingestPerSecond, double latencyP50Ms, double latencyP95Ms, double latencyP99Ms, double latencyMaxMs,
+		long notVisible, long lagMax, long lagFinal, long gcPauses, long gcPauseTotalMs, long gcPauseMaxMs,
+		long heapUsedMaxMb, long liveHeapMaxMb) {
+
+	/**
+	 * {@link Gson} writing the reports
+	 */
+	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+	/**
+	 * Method to save the report in the directory
+	 *
+	 * @param dir Report directory
+	 * @throws IOException If the report cannot be written
+	 */
+	void save(Path dir) throws IOException {
+		Files.createDirectories(dir);
+		try (Writer writer = Files.newBufferedWriter(dir.resolve(label + ".json"), StandardCharsets.UTF_8)) {
+			GSON.toJson(this, writer);
+		}
+	}
+
+	/**
+	 * Method to compare the runs saved in the directory
+	 *
+	 * @param dir      Report directory
+	 * @param baseline Label of the baseline run, or {@code null} for the earliest
+	 *                 run
+	 * @return Comparison table
+	 * @throws IOException If the reports cannot be read
+	 */
+	static String compare(Path dir, String baseline) throws IOException {
+		List<SoakReport> runs = new ArrayList<>();
+		try (Stream<Path> files = Files.list(dir)) {
+			for (Path file : files.filter(f -> f.toString().endsWith(".json")).toList())
+				try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+					runs.add(GSON.fromJson(reader, SoakReport.class));
+				}
+		}
+		runs.sort(Comparator.comparingLong(SoakReport::startedAt));
+		if (runs.isEmpty())
+			return "No runs in " + dir;
+
+		SoakReport base = runs.stream().filter(run -> run.label().equals(baseline)).findFirst().orElse(runs.get(0));
+
+		StringBuilder table = new StringBuilder(String.format("%-24s %12s %12s %10s %10s %10s %10s %8s %10s %10s %10s%n",
+				"run", "ingest/s", "produced/s", "p50 ms", "p99 ms", "max ms", "lag max", "gc #", "gc ms", "heap MB",
+				"live MB"));
+		for (SoakReport run : runs) {
+			table.append(String.format("%-24s %12s %12s %10s %10s %10s %10s %8s %10s %10s %10s%n",
+					run.label() + (run == base ? " *" : ""), cell(run, base, SoakReport::ingestPerSecond),
+					cell(run, base, SoakReport::producedPerSecond), cell(run, base, SoakReport::latencyP50Ms),
+					cell(run, base, SoakReport::latencyP99Ms), cell(run, base, SoakReport::latencyMaxMs),
+					cell(run, base, SoakReport::lagMax), cell(run, base, SoakReport::gcPauses),
+					cell(run, base, SoakReport::gcPauseTotalMs), cell(run, base, SoakReport::heapUsedMaxMb),
+					cell(run, base, SoakReport::liveHeapMaxMb)));
+		}
+
+		table.append(String.format("%n* baseline%n"));
+		for (SoakReport run : runs)
+			if (!Objects.equals(run.settings(), base.settings()))
+				table.append(String.format("%s settings: %s%n", run.label(), run.settings()));
+		return table.toString();
+	}
+
+	/**
+	 * Method to format a figure with its change against the baseline
+	 *
+	 * @param run    Run of the figure
+	 * @param base   Baseline run
+	 * @param figure Figure to format
+	 * @return Figure, followed by the change in percent for runs other than the
+	 *         baseline
+	 */
+	private static String cell(SoakReport run, SoakReport base, ToDoubleFunction<SoakReport> figure) {
+		double value = figure.applyAsDouble(run);
+		double baseValue = figure.applyAsDouble(base);
+		String formatted = value >= 100 ? String.format("%.0f", value) : String.format("%.1f", value);
+		if (run == base || baseValue == 0)
+			return formatted;
+		return String.format("%s(%+.0f%%)", formatted, (value - baseValue) * 100 / baseValue);
+	}
+}
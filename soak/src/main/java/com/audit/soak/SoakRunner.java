@@ -0,0 +1,353 @@
+package com.audit.soak;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.audit.Application;
+import com.audit.repo.AuditRepo;
+import com.model.entity.Audit;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Entry point of the soak harness.
+ *
+ * <p>
+ * A run goes through these steps:
+ * </p>
+ * <ol>
+ * <li>Start an embedded KAFKA broker with the topics of the service</li>
+ * <li>Start the application against the broker and an in-process H2 data base
+ * in PostgreSQL mode, or the PostgreSQL given by
+ * {@code soak.datasource.url}</li>
+ * <li>Produce audit and log messages at the configured rate through the warm
+ * up and the measurement window</li>
+ * <li>Poll the audit table for new rows to measure the latency from produce to
+ * row visible, and the consumer group offsets to measure the lag</li>
+ * <li>Wait for the backlog to drain, save the report and print the comparison
+ * with the earlier runs</li>
+ * </ol>
+ *
+ * <p>
+ * See {@link SoakSettings} for the settings of a run.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+public class SoakRunner {
+
+	/**
+	 * Rows read per page when polling the audit table
+	 */
+	private static final int POLL_PAGE_SIZE = 1000;
+
+	/**
+	 * Number of ids below the highest seen id that are scanned again on each
+	 * poll, as rows committed by concurrent consumers may become visible out of
+	 * id order
+	 */
+	private static final long RESCAN_MARGIN = 2000;
+
+	/**
+	 * Settings of the run
+	 */
+	private final SoakSettings settings;
+
+	/**
+	 * Latency from produce to row visible
+	 */
+	private final Timer latency;
+
+	/**
+	 * Rows seen during the measurement window
+	 */
+	private final AtomicLong ingested = new AtomicLong();
+
+	/**
+	 * Highest consumer lag seen during the measurement window
+	 */
+	private final LongAccumulator lagMax = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Last consumer lag seen
+	 */
+	private volatile long lag;
+
+	/**
+	 * Highest audit id seen
+	 */
+	private long highestId;
+
+	/**
+	 * {@link System#nanoTime()} at which the measurement window starts, or
+	 * {@link Long#MAX_VALUE} during the warm up
+	 */
+	private volatile long measureFrom = Long.MAX_VALUE;
+
+	/**
+	 * {@link System#nanoTime()} at which the measurement window ends
+	 */
+	private volatile long measureTo = Long.MAX_VALUE;
+
+	/**
+	 * Constructor to create the runner
+	 *
+	 * @param settings Settings of the run
+	 */
+	SoakRunner(SoakSettings settings) {
+		this.settings = settings;
+		this.latency = Timer.builder("soak.latency").publishPercentiles(0.5, 0.95, 0.99)
+				.distributionStatisticExpiry(Duration.ofDays(1)).distributionStatisticBufferLength(1)
+				.register(new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Java main method running a soak
+	 *
+	 * @param args Arguments passed on to the application
+	 * @throws Exception If the run fails
+	 */
+	public static void main(String[] args) throws Exception {
+		SoakSettings settings = SoakSettings.fromSystemProperties();
+		SoakReport report = new SoakRunner(settings).run(args);
+
+		Path dir = Path.of(settings.reportDir());
+		report.save(dir);
+		System.out.println(SoakReport.compare(dir, settings.baseline()));
+	}
+
+	/**
+	 * Method to run the soak
+	 *
+	 * @param args Arguments passed on to the application
+	 * @return {@link SoakReport} of the run
+	 * @throws Exception If the run fails
+	 */
+	SoakReport run(String[] args) throws Exception {
+		EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, settings.partitions(),
+				SoakProducer.AUDIT_TOPIC, SoakProducer.LOG_TOPIC, "audit-low-priority-topic");
+		broker.afterPropertiesSet();
+		long startedAt = System.currentTimeMillis();
+
+		ScheduledExecutorService probes = Executors.newScheduledThreadPool(2);
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+				.properties(defaults()).run(arguments(broker.getBrokersAsString(), args));
+				Admin admin = Admin.create(
+						Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+			AuditRepo auditRepo = context.getBean(AuditRepo.class);
+			Map<String, String> groups = groups(context.getBean(KafkaListenerEndpointRegistry.class));
+			SoakProducer producer = new SoakProducer(settings, broker.getBrokersAsString());
+			JvmProbe jvm = new JvmProbe();
+			jvm.start();
+
+			probes.scheduleWithFixedDelay(() -> pollVisible(auditRepo, producer.pending()), 100, 100,
+					TimeUnit.MILLISECONDS);
+			probes.scheduleWithFixedDelay(() -> {
+				pollLag(admin, groups);
+				jvm.sampleHeap();
+			}, 1, 1, TimeUnit.SECONDS);
+
+			Thread load = new Thread(producer, "soak-producer");
+			load.start();
+
+			TimeUnit.SECONDS.sleep(settings.warmupSeconds());
+			jvm.reset();
+			long producedBefore = producer.produced();
+			measureFrom = System.nanoTime();
+
+			TimeUnit.SECONDS.sleep(settings.durationSeconds());
+			measureTo = System.nanoTime();
+			long produced = producer.produced() - producedBefore;
+			producer.stop();
+			load.join();
+
+			long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.drainSeconds());
+			while (System.nanoTime() < drainUntil && (lag > 0 || !producer.pending().isEmpty()))
+				TimeUnit.MILLISECONDS.sleep(200);
+
+			double window = (measureTo - measureFrom) / 1e9;
+			Map<Double, Double> percentiles = new HashMap<>();
+			for (ValueAtPercentile value : latency.takeSnapshot().percentileValues())
+				percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+
+			return new SoakReport(settings.label(), startedAt, settings(), produced / window,
+					ingested.get() / window, percentiles.getOrDefault(0.5, 0.0), percentiles.getOrDefault(0.95, 0.0),
+					percentiles.getOrDefault(0.99, 0.0), latency.max(TimeUnit.MILLISECONDS),
+					producer.pending().size(), lagMax.get(), lag, jvm.pauses(), jvm.pauseTotalMs(), jvm.pauseMaxMs(),
+					jvm.heapUsedMaxMb(), jvm.liveHeapMaxMb());
+		} finally {
+			probes.shutdownNow();
+			broker.destroy();
+		}
+	}
+
+	/**
+	 * Method to find the audits that became visible since the last poll and
+	 * record their latency
+	 *
+	 * @param auditRepo {@link AuditRepo} of the application
+	 * @param pending   Scheduled times of the audits not yet visible
+	 */
+	private void pollVisible(AuditRepo auditRepo, Map<String, Long> pending) {
+		long now = System.nanoTime();
+		long scanTo = highestId - RESCAN_MARGIN;
+		for (int page = 0;; page++) {
+			List<Audit> rows = auditRepo.findByOrderByIdDesc(PageRequest.of(page, POLL_PAGE_SIZE));
+			for (Audit audit : rows) {
+				long id = audit.getId();
+				if (id <= scanTo)
+					return;
+				highestId = Math.max(highestId, id);
+
+				Long scheduled = pending.remove(audit.getRefNo());
+				if (Objects.nonNull(scheduled) && scheduled >= measureFrom && scheduled < measureTo) {
+					latency.record(now - scheduled, TimeUnit.NANOSECONDS);
+					ingested.incrementAndGet();
+				}
+			}
+			if (rows.size() < POLL_PAGE_SIZE)
+				return;
+		}
+	}
+
+	/**
+	 * Method to resolve the consumer group of each topic from the listener
+	 * containers of the application, so the groups follow the same properties
+	 * as the listeners
+	 *
+	 * @param registry {@link KafkaListenerEndpointRegistry} of the application
+	 * @return Consumer group by topic
+	 */
+	private static Map<String, String> groups(KafkaListenerEndpointRegistry registry) {
+		return Map.of(SoakProducer.AUDIT_TOPIC, registry.getListenerContainer("audit").getGroupId(),
+				SoakProducer.LOG_TOPIC, registry.getListenerContainer("logs").getGroupId());
+	}
+
+	/**
+	 * Method to measure the lag of the consumer groups on the audit and log
+	 * topics
+	 *
+	 * @param admin  KAFKA {@link Admin} client
+	 * @param groups Consumer group by topic
+	 */
+	private void pollLag(Admin admin, Map<String, String> groups) {
+		try {
+			Map<String, Map<TopicPartition, OffsetAndMetadata>> committed = new HashMap<>();
+			for (String group : Set.copyOf(groups.values()))
+				committed.put(group, admin.listConsumerGroupOffsets(group).partitionsToOffsetAndMetadata().get());
+
+			Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+			for (String topic : groups.keySet())
+				for (int partition = 0; partition < settings.partitions(); partition++)
+					latest.put(new TopicPartition(topic, partition), OffsetSpec.latest());
+
+			long total = 0;
+			for (Map.Entry<TopicPartition, ListOffsetsResultInfo> end : admin.listOffsets(latest).all().get()
+					.entrySet()) {
+				OffsetAndMetadata offset = committed.get(groups.get(end.getKey().topic())).get(end.getKey());
+				total += end.getValue().offset() - (Objects.isNull(offset) ? 0 : offset.offset());
+			}
+
+			lag = total;
+			long now = System.nanoTime();
+			if (now >= measureFrom && now < measureTo)
+				lagMax.accumulate(total);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// The group has not committed yet, measured again on the next poll
+		}
+	}
+
+	/**
+	 * Method to create the properties the application needs to start without
+	 * its external configuration. These have the lowest precedence, so any
+	 * system property or argument overrides them.
+	 *
+	 * @return Default properties
+	 */
+	private static Map<String, Object> defaults() {
+		Map<String, Object> defaults = new HashMap<>();
+		defaults.put("datasource.driver", "org.h2.Driver");
+		defaults.put("datasource.url", "jdbc:h2:mem:soak");
+		defaults.put("datasource.user", "sa");
+		defaults.put("datasource.pass", "");
+		defaults.put("hikari.maximum-pool-size", 10);
+		defaults.put("hikari.minimum-idle", 2);
+		defaults.put("jpa.show-sql", false);
+		defaults.put("hibernate-ddl-auto", "update");
+		defaults.put("hibernate-autocommit", false);
+		defaults.put("lb.server.route", "http://localhost");
+		defaults.put("loglevel.application", "INFO");
+		return defaults;
+	}
+
+	/**
+	 * Method to create the arguments pointing the application at the embedded
+	 * broker and the data base
+	 *
+	 * @param bootstrapServers Address of the embedded broker
+	 * @param args             Arguments given to the harness
+	 * @return Arguments of the application
+	 */
+	private String[] arguments(String bootstrapServers, String[] args) {
+		List<String> arguments = new ArrayList<>(List.of(args));
+		arguments.add("--spring.profiles.active=soak");
+		arguments.add("--server.port=0");
+		arguments.add("--eureka.client.enabled=false");
+		arguments.add("--config.kafka.server-details=" + bootstrapServers);
+		if (Objects.nonNull(settings.datasourceUrl())) {
+			arguments.add("--spring.datasource.url=" + settings.datasourceUrl());
+			arguments.add("--spring.datasource.driver-class-name=org.postgresql.Driver");
+		} else {
+			arguments.add("--spring.datasource.url=jdbc:h2:mem:soak;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+					+ "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+			arguments.add("--spring.datasource.driver-class-name=org.h2.Driver");
+		}
+		arguments.add("--spring.datasource.username=" + settings.datasourceUsername());
+		arguments.add("--spring.datasource.password=" + settings.datasourcePassword());
+		return arguments.toArray(String[]::new);
+	}
+
+	/**
+	 * Method to collect the settings recorded in the report
+	 *
+	 * @return Settings of the run
+	 */
+	private Map<String, String> settings() {
+		Map<String, String> recorded = new HashMap<>(settings.tuning());
+		recorded.put("soak.rate", String.valueOf(settings.rate()));
+		recorded.put("soak.audit-ratio", String.valueOf(settings.auditRatio()));
+		recorded.put("soak.payload-mix", settings.payloadMix().toString());
+		recorded.put("soak.partitions", String.valueOf(settings.partitions()));
+		recorded.put("soak.duration-seconds", String.valueOf(settings.durationSeconds()));
+		recorded.put("soak.datasource", Objects.isNull(settings.datasourceUrl()) ? "h2" : "postgresql");
+		return recorded;
+	}
+}
@@ -0,0 +1,70 @@
+package com.audit.soak;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Settings of a soak run, read from system properties.
+ *
+ * <ul>
+ * <li>{@code soak.label} - Name of the run and of its report file</li>
+ * <li>{@code soak.rate} - Messages produced per second</li>
+ * <li>{@code soak.warmup-seconds} - Time before measuring starts</li>
+ * <li>{@code soak.duration-seconds} - Length of the measurement window</li>
+ * <li>{@code soak.drain-seconds} - Maximum time to wait for the backlog after
+ * producing stops</li>
+ * <li>{@code soak.audit-ratio} - Share of audit messages, the rest go to the
+ * log topic</li>
+ * <li>{@code soak.payload-mix} - Body sizes in bytes with their weights, e.g.
+ * {@code 256:70,4096:25,65536:5}</li>
+ * <li>{@code soak.partitions} - Partitions of each topic</li>
+ * <li>{@code soak.report-dir} - Directory of the run reports</li>
+ * <li>{@code soak.baseline} - Label of the run the others are compared
+ * with</li>
+ * <li>{@code soak.datasource.url}, {@code soak.datasource.username},
+ * {@code soak.datasource.password} - A real PostgreSQL to soak against</li>
+ * </ul>
+ *
+ * <p>
+ * Every {@code config.*}, {@code spring.*} and {@code server.*} system property
+ * is handed to the application as is and recorded in the report, so the tuning
+ * of a run is always known when comparing it.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+record SoakSettings(String label, int rate, int warmupSeconds, int durationSeconds, int drainSeconds,
+		double auditRatio, NavigableMap<Integer, Integer> payloadMix, int partitions, String reportDir,
+		String baseline, String datasourceUrl, String datasourceUsername, String datasourcePassword,
+		Map<String, String> tuning) {
+
+	/**
+	 * Method to read the settings from the system properties
+	 *
+	 * @return {@link SoakSettings} object
+	 */
+	static SoakSettings fromSystemProperties() {
+		NavigableMap<Integer, Integer> payloadMix = new TreeMap<>();
+		for (String entry : System.getProperty("soak.payload-mix", "256:70,4096:25,65536:5").split(",")) {
+			String[] sizeWeight = entry.trim().split(":");
+			payloadMix.put(Integer.parseInt(sizeWeight[0]),
+					sizeWeight.length > 1 ? Integer.parseInt(sizeWeight[1]) : 1);
+		}
+
+		Map<String, String> tuning = new TreeMap<>();
+		System.getProperties().stringPropertyNames().stream()
+				.filter(name -> name.startsWith("config.") || name.startsWith("spring.")
+						|| name.startsWith("server."))
+				.forEach(name -> tuning.put(name, System.getProperty(name)));
+
+		return new SoakSettings(System.getProperty("soak.label", "run-" + System.currentTimeMillis()),
+				Integer.getInteger("soak.rate", 1000), Integer.getInteger("soak.warmup-seconds", 30),
+				Integer.getInteger("soak.duration-seconds", 300), Integer.getInteger("soak.drain-seconds", 60),
+				Double.parseDouble(System.getProperty("soak.audit-ratio", "0.8")), payloadMix,
+				Integer.getInteger("soak.partitions", 3), System.getProperty("soak.report-dir", "target/soak"),
+				System.getProperty("soak.baseline"), System.getProperty("soak.datasource.url"),
+				System.getProperty("soak.datasource.username", "sa"),
+				System.getProperty("soak.datasource.password", ""), tuning);
+	}
+}
@@ -0,0 +1,28 @@
+/**
+ * This package contains the end-to-end soak harness of the
+ * {@code audit-service} application.
+ * 
+ * <p>
+ * The harness starts the application against an embedded KAFKA broker and an
+ * in-process PostgreSQL compatible data base, produces audit and log messages
+ * at a fixed rate and payload mix, and measures the sustained ingest
+ * throughput, the latency from produce to row visible, the consumer lag, the GC
+ * pauses and the heap usage. Each run is saved as a JSON report and compared
+ * with the earlier runs, so tuning changes can be judged by numbers.
+ * </p>
+ * 
+ * <h2>Components</h2>
+ * <ul>
+ * <li>{@link com.audit.soak.SoakRunner} - Entry point running a soak</li>
+ * <li>{@link com.audit.soak.SoakSettings} - Settings of a run read from system
+ * properties</li>
+ * <li>{@link com.audit.soak.SoakProducer} - Paced producer of the load</li>
+ * <li>{@link com.audit.soak.JvmProbe} - GC pause and heap sampling</li>
+ * <li>{@link com.audit.soak.SoakReport} - Result of a run and comparison of
+ * runs</li>
+ * </ul>
+ * 
+ * 
+ * @author Kabir Akware
+ */
+package com.audit.soak;
@@ -1,27 +1,53 @@
 package com.audit.advice;
 
-import java.util.Collections;
-import java.util.stream.IntStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+import org.aopalliance.intercept.MethodInvocation;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.After;
-import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 import com.utilities.log.Log;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
- * Aspect for logging execution of Service and Repository components. This
- * Aspect is responsible for logging method entries, exit, errors and returned
- * values.
- * 
- * 
+ * Aspect for tracing execution of Service and Repository components. This
+ * Aspect records the latency of every method into a Micrometer
+ * {@code audit.method.latency} histogram, logs a sample of the invocations with
+ * their arguments at {@code DEBUG} level, and logs the errors thrown by the
+ * controllers.
+ *
+ * <p>
+ * The fast path, taken when {@code DEBUG} is disabled for this class, looks up
+ * a cached {@link Timer} in a {@link ClassValue} of the proxy class, holding a
+ * map keyed by the invoked {@link Method}, and records a
+ * {@link System#nanoTime()} delta; it allocates no key, neither reflects on
+ * parameter names nor renders arguments. The timer is tagged with the
+ * repository interface, or the service class, the proxy stands for, so a method
+ * that a repository inherits from {@code CrudRepository} is timed per
+ * repository. When {@code DEBUG} is enabled, one in
+ * {@code config.trace.sample-rate} invocations is logged with its arguments.
+ * </p>
+ *
+ *
  * @see <a href =
  *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/stereotype/Component.html">
  *      Component </a>
@@ -35,19 +61,61 @@ import com.utilities.log.Log;
 public class LoggingAspect {
 
 	/**
-	 * PointCut that matches all Services, Components, RestController and
-	 * Configuration for logging.
-	 * 
+	 * Logger used to guard the detailed logging
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(LoggingAspect.class);
+
+	/**
+	 * Package of the application interfaces the timers are tagged with
+	 */
+	private static final String APPLICATION_PACKAGE = "com.audit.";
+
+	/**
+	 * {@link MeterRegistry} the latency histograms are registered in
+	 */
+	private final MeterRegistry registry;
+
+	/**
+	 * One in {@code sampleRate} invocations is logged in detail
+	 */
+	private final int sampleRate;
+
+	/**
+	 * Latency timers of the traced methods by proxy class and {@link Method}
+	 */
+	private final ClassValue<Map<Method, Timer>> timers = new ClassValue<>() {
+
+		@Override
+		protected Map<Method, Timer> computeValue(Class<?> proxy) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * Constructor to create the aspect
+	 *
+	 * @param registry   {@link MeterRegistry} the latency histograms are
+	 *                   registered in
+	 * @param sampleRate One in {@code sampleRate} invocations is logged in detail
+	 */
+	public LoggingAspect(MeterRegistry registry, @Value("${config.trace.sample-rate:100}") int sampleRate) {
+		this.registry = registry;
+		this.sampleRate = Math.max(1, sampleRate);
+	}
+
+	/**
+	 * PointCut that matches all Services and Repositories for tracing.
+	 *
 	 * This PointCut expression matches execution of any public methods specified
-	 * within the package {@code com.encryption}
+	 * within the packages {@code com.audit.services} and {@code com.audit.repo}
 	 */
-	@Pointcut("execution(* com.encryption..*(..)) && !execution (* org.springframework.data.repository..*(..))")
+	@Pointcut("execution(* com.audit.services..*.*(..)) || execution(* com.audit.repo..*.*(..))")
 	public void beanPointCut() {
 	}
 
 	/**
 	 * PointCut that matches all Controllers for error logging.
-	 * 
+	 *
 	 * This PointCut expression matches execution of any public methods specified
 	 * within the packages annotated with
 	 * {@link org.springframework.web.bind.annotation.RestController},
@@ -57,56 +125,43 @@ public class LoggingAspect {
 	}
 
 	/**
-	 * Logs the execution of public methods in Spring Beans. This method runs before
-	 * the execution of any public method in the specified packages and logs the
-	 * method signature.
-	 * 
+	 * Traces the execution of public methods in Spring Beans. This method records
+	 * the latency of the method and logs a sample of the invocations in detail.
+	 *
 	 * @param joinPoint Provides access to method details being executed
+	 * @return The value returned by the method
+	 * @throws Throwable The error thrown by the method
 	 */
-	@Before("beanPointCut()")
-	public void logBefore(JoinPoint joinPoint) {
-
-		String[] params = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
-		Object[] args = joinPoint.getArgs();
+	@Around("beanPointCut()")
+	public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+		MethodInvocation invocation = ExposeInvocationInterceptor.currentInvocation();
+		Class<?> proxy = Objects.requireNonNullElse(joinPoint.getThis(), joinPoint.getTarget()).getClass();
+		Map<Method, Timer> proxyTimers = timers.get(proxy);
+		Timer timer = proxyTimers.get(invocation.getMethod());
+		if (Objects.isNull(timer))
+			timer = proxyTimers.computeIfAbsent(invocation.getMethod(), method -> timer(proxy, method));
 
-		Log.info(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint.getSignature().getName(),
-				"method started");
+		boolean detailed = LOGGER.isDebugEnabled() && ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+		if (detailed)
+			Log.debug(invocation.getMethod().getDeclaringClass().getSimpleName(), invocation.getMethod().getName(),
+					"method started with arguments: %s", render(invocation.getArguments()));
 
-		Log.debug(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint.getSignature().getName(),
-                "method started with arguments: %s".formatted(
-                        params.length != 0 ? String.join(", ", Collections.nCopies(params.length, "%s")) : null),
-				IntStream.range(0, params.length).mapToObj(i -> params[i] + ":" + String.valueOf(args[i])).toArray());
+		long start = System.nanoTime();
+		try {
+			Object result = joinPoint.proceed();
+			if (detailed)
+				Log.debug(invocation.getMethod().getDeclaringClass().getSimpleName(),
+						invocation.getMethod().getName(), "method ended returning: %s", result);
+			return result;
+		} finally {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
 	}
 
-	/**
-	 * Logs the return value of methods after execution. This method runs after a
-	 * method successfully executes.
-	 * 
-	 * @param joinPoint Provides access to method details being executed
-	 */
-	@After("beanPointCut()")
-	public void logAfter(JoinPoint joinPoint) {
-		Log.info(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint.getSignature().getName(),
-				"method ended");
-	}
-
-	/**
-	 * Logs the return value of methods after execution. This method runs after a
-	 * method successfully returns and logs the return value.
-	 * 
-	 * @param joinPoint Provides access to method details being executed
-	 * @param result    The value returned by a method
-	 */
-	@AfterReturning(pointcut = "beanPointCut()", returning = "result")
-	public void logAfterReturning(JoinPoint joinPoint, Object result) {
-		Log.debug(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint.getSignature().getName(),
-				"method ended returning: %s", result);
-	}
-	
 	/**
 	 * Logs the error thrown by methods after execution failure. This method runs
 	 * after a method throws an exception and logs the exception details.
-	 * 
+	 *
 	 * @param joinPoint Provides access to method details being executed
 	 * @param e         The error thrown by a method
 	 */
@@ -116,4 +171,47 @@ public class LoggingAspect {
 				"exception occured in the application:\n%s",
 				ExceptionUtils.getStackTrace(e));
 	}
+
+	/**
+	 * Method to create the latency histogram of a traced method
+	 *
+	 * @param proxy  Class of the proxy the method was invoked on
+	 * @param method Traced {@link Method}
+	 * @return {@link Timer} publishing a percentile histogram
+	 */
+	private Timer timer(Class<?> proxy, Method method) {
+		return Timer.builder("audit.method.latency").tag("class", owner(proxy, method).getSimpleName())
+				.tag("method", method.getName()).publishPercentileHistogram().register(registry);
+	}
+
+	/**
+	 * Method to resolve the class a traced method is timed under: the
+	 * application interface of the proxy declaring the method, such as the
+	 * repository interface of a Spring Data proxy, or else the class of the bean
+	 *
+	 * @param proxy  Class of the proxy the method was invoked on
+	 * @param method Traced {@link Method}
+	 * @return Repository interface or bean class
+	 */
+	private static Class<?> owner(Class<?> proxy, Method method) {
+		Class<?> declaring = method.getDeclaringClass();
+		for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(proxy))
+			if (type.getName().startsWith(APPLICATION_PACKAGE) && declaring.isAssignableFrom(type))
+				return type;
+		Class<?> user = ClassUtils.getUserClass(proxy);
+		return declaring.isAssignableFrom(user) && !Proxy.isProxyClass(user) ? user : declaring;
+	}
+
+	/**
+	 * Method to render the arguments of a sampled invocation
+	 *
+	 * @param args Arguments of the invocation
+	 * @return Arguments separated by commas
+	 */
+	private static String render(Object[] args) {
+		StringBuilder rendered = new StringBuilder();
+		for (int i = 0; i < args.length; i++)
+			rendered.append(i == 0 ? "" : ", ").append(args[i]);
+		return rendered.toString();
+	}
 }
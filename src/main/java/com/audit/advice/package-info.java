@@ -17,8 +17,8 @@
  * <li>{@link com.encryption.advice.AuditControllerAdvice} - Handles
  * exceptions thrown in the system globally and returns a response wrapped in
  * {@link com.model.dto.AppError} object</li>
- * <li>{@link com.audit.advice.LoggingAspect} - Handles the logging in the
- * application</li>
+ * <li>{@link com.audit.advice.LoggingAspect} - Handles the tracing, latency
+ * metrics and error logging in the application</li>
  * </ul>
  * <p>
  * Key responsibilities of classes in this package include:
@@ -1,21 +1,15 @@
 package com.audit.config;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Properties;
 
-import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
-import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
-import org.springframework.kafka.core.ConsumerFactory;
-import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -24,9 +18,11 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import com.audit.exception.AppException;
 import com.audit.services.AuthProvider;
+import com.audit.services.TokenService;
 import com.google.gson.Gson;
 import com.utilities.exceptions.ConfigException;
 import com.utilities.log.Log;
@@ -99,12 +95,27 @@ public class AppConfig {
 	 */
 	private AuthProvider provider;
 
+	/**
+	 * {@code TokenService} interface variable
+	 */
+	private TokenService tokenService;
+
 	/**
 	 * Method to create a {@code @Bean} of {@link SecurityFilterChain} to provide a
 	 * customized implementation of the security and add that to the filter chain
 	 * before the application layer to perform security checks before providing
 	 * access to the resource3s in the system
 	 * 
+	 * <p>
+	 * Requests carrying a bearer token issued on {@code /v1/token} are
+	 * authenticated by {@link BearerTokenFilter} ahead of HTTP Basic
+	 * authentication. The {@link ListenerControlEndpoint} actuator end point
+	 * requires the {@code ADMIN} authority. The full-text search on
+	 * {@code /v1/audit/search} reads request and response bodies, so it requires
+	 * the {@code SYSTEM} authority ahead of the open {@code /v1/audit/**} end
+	 * points.
+	 * </p>
+	 * 
 	 * @param security {@link HttpSecurity} object
 	 * @return {@link SecurityFilterChain} with all the necessary security checks
 	 * @throws AppException Thrown when a custom exception occurs
@@ -114,9 +125,14 @@ public class AppConfig {
 		try {
 			return security.csrf(AbstractHttpConfigurer::disable)
 					.authorizeHttpRequests(request -> request
-							.requestMatchers("/v1/users/register", "/v1/channels/register", "/v1/properties/**")
-							.hasAuthority("ADMIN").requestMatchers("/v1/audit/**", "/v1/channels/**", "/v1/users/**")
-							.permitAll().requestMatchers("/**").hasAuthority("SYSTEM").anyRequest().authenticated())
+							.requestMatchers("/v1/users", "/v1/users/stream", "/v1/users/register", "/v1/channels/register",
+										"/v1/properties/**")
+							.hasAuthority("ADMIN").requestMatchers(EndpointRequest.to(ListenerControlEndpoint.class))
+							.hasAuthority("ADMIN").requestMatchers("/v1/audit/search").hasAuthority("SYSTEM")
+							.requestMatchers("/v1/audit/**", "/v1/channels/**", "/v1/users/**")
+							.permitAll().requestMatchers("/v1/token").authenticated().requestMatchers("/**")
+							.hasAuthority("SYSTEM").anyRequest().authenticated())
+					.addFilterBefore(new BearerTokenFilter(tokenService), BasicAuthenticationFilter.class)
 					.httpBasic(Customizer.withDefaults())
 					.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 					.authenticationProvider(provider.authenticationProvider()).build();
@@ -144,24 +160,4 @@ public class AppConfig {
 
 		return new KafkaProducer<>(props);
 	}
-
-	@Bean
-	ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
-			@Value("${config.kafka.server-details}") String bootstrapServers) {
-		ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
-		factory.setConsumerFactory(consumerFactory(bootstrapServers));
-		factory.setConcurrency(3); // Number of consumer threads
-		return factory;
-	}
-
-	private ConsumerFactory<String, String> consumerFactory(String bootstrapServers) {
-		Map<String, Object> props = new HashMap<>();
-		props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-		props.put(ConsumerConfig.GROUP_ID_CONFIG, "consumer-group");
-		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-		props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-		return new DefaultKafkaConsumerFactory<>(props);
-	}
-}
+}
\ No newline at end of file
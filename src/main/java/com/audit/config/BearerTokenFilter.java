@@ -0,0 +1,79 @@
+package com.audit.config;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.audit.services.TokenService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+
+/**
+ * Servlet filter authenticating requests that carry an
+ * {@code Authorization: Bearer <token>} header issued by {@link TokenService}.
+ *
+ * <p>
+ * The token is resolved in memory, so these requests skip both the BCrypt
+ * verification and the user lookup of HTTP Basic authentication. Requests
+ * without a bearer token continue down the chain unchanged, and requests with
+ * an unknown, expired or revoked token are rejected with {@code 401}.
+ * </p>
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/web/filter/OncePerRequestFilter.html">
+ *      OncePerRequestFilter</a>
+ * @author Kabir Akware
+ */
+@AllArgsConstructor
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+	/**
+	 * Prefix of the bearer {@code Authorization} header
+	 */
+	private static final String BEARER = "Bearer ";
+
+	/**
+	 * {@code TokenService} interface variable
+	 */
+	private TokenService tokenService;
+
+	/**
+	 * Method to authenticate the request from its bearer token, if any
+	 *
+	 * @param request  {@link HttpServletRequest} object
+	 * @param response {@link HttpServletResponse} object
+	 * @param chain    {@link FilterChain} to continue the request
+	 */
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (Objects.isNull(header) || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		Optional<Authentication> authentication = tokenService.authenticate(header.substring(BEARER.length()).trim());
+		if (authentication.isEmpty()) {
+			response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+			response.sendError(HttpStatus.UNAUTHORIZED.value());
+			return;
+		}
+
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		context.setAuthentication(authentication.get());
+		SecurityContextHolder.setContext(context);
+		chain.doFilter(request, response);
+	}
+}
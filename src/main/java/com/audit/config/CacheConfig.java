@@ -0,0 +1,136 @@
+package com.audit.config;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.audit.repo.UserDetailsRepo;
+import com.audit.utility.CredentialCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * The {@code CacheConfig} class configures the Spring caches of the
+ * application explicitly instead of relying on the unbounded defaults.
+ *
+ * <ul>
+ * <li>{@value #USERS} - user details loaded for authentication, bounded by
+ * {@code config.cache.users.max-size} and expired after
+ * {@code config.cache.users.ttl-minutes}. An entry read more than
+ * {@code config.cache.users.refresh-minutes} after it was written is reloaded
+ * from the data base in the background while the cached details keep being
+ * served, so users that keep authenticating never wait for a reload and users
+ * that stop expire. A reload that finds the password or authorities changed,
+ * e.g. by another replica, drops the verified credentials of the user from the
+ * {@link CredentialCache}; a reload that finds the user deleted evicts it.</li>
+ * <li>{@value #MISSING_USERS} - short-lived negative entries for unknown user
+ * names, expired after {@code config.cache.users.negative-ttl-seconds}.</li>
+ * </ul>
+ *
+ * <p>
+ * Every cache records statistics, which are published as {@code cache.gets}
+ * hit and miss metrics through the actuator.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Configuration
+public class CacheConfig {
+
+	/**
+	 * Name of the user details cache
+	 */
+	public static final String USERS = "loadUserByUsername";
+
+	/**
+	 * Name of the negative cache of unknown user names
+	 */
+	public static final String MISSING_USERS = "missingUsers";
+
+	/**
+	 * Method to create the {@link CacheManager} with the explicitly configured
+	 * caches
+	 *
+	 * @param userDetailsRepo    {@link UserDetailsRepo} reloading the user details
+	 * @param credentialCache    {@link CredentialCache} of verified credentials
+	 * @param maxSize            Maximum number of cached user details
+	 * @param ttlMinutes         Time in minutes after which cached user details
+	 *                           expire unless refreshed
+	 * @param refreshMinutes     Time in minutes after which read user details are
+	 *                           reloaded in the background
+	 * @param negativeTtlSeconds Time in seconds for which an unknown user name is
+	 *                           remembered
+	 * @return {@link CacheManager} object
+	 */
+	@Bean
+	CacheManager cacheManager(UserDetailsRepo userDetailsRepo, CredentialCache credentialCache,
+			@Value("${config.cache.users.max-size:10000}") long maxSize,
+			@Value("${config.cache.users.ttl-minutes:120}") long ttlMinutes,
+			@Value("${config.cache.users.refresh-minutes:60}") long refreshMinutes,
+			@Value("${config.cache.users.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+		cacheManager.setAllowNullValues(false);
+		cacheManager.registerCustomCache(USERS,
+				Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+						.refreshAfterWrite(Duration.ofMinutes(refreshMinutes)).recordStats()
+						.build(userDetailsReloader(userDetailsRepo, credentialCache)));
+		cacheManager.registerCustomCache(MISSING_USERS, Caffeine.newBuilder().maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds)).recordStats().build());
+		return cacheManager;
+	}
+
+	/**
+	 * Method to create the loader refreshing the cached user details.
+	 *
+	 * <p>
+	 * It never loads a missing entry, so a cache miss still goes through
+	 * {@code loadUserByUsername} and its negative cache; it only reloads the
+	 * entries Caffeine refreshes after {@code config.cache.users.refresh-minutes}.
+	 * </p>
+	 *
+	 * @param userDetailsRepo {@link UserDetailsRepo} reloading the user details
+	 * @param credentialCache {@link CredentialCache} of verified credentials
+	 * @return {@link CacheLoader} of the {@value #USERS} cache
+	 */
+	private static CacheLoader<Object, Object> userDetailsReloader(UserDetailsRepo userDetailsRepo,
+			CredentialCache credentialCache) {
+		return new CacheLoader<>() {
+
+			@Override
+			public Object load(Object key) {
+				return null;
+			}
+
+			@Override
+			public Object reload(Object key, Object oldValue) {
+				String username = String.valueOf(key);
+				Optional<UserPricipal> fresh = userDetailsRepo.findById(username).map(UserPricipal::getInstance);
+				if (fresh.isEmpty() || changed((UserDetails) oldValue, fresh.get()))
+					credentialCache.invalidate(username);
+				return fresh.orElse(null);
+			}
+		};
+	}
+
+	/**
+	 * Method to check whether the credentials or authorities of a user changed
+	 *
+	 * @param cached Cached user details
+	 * @param fresh  User details read from the data base
+	 * @return {@code true} if the password hash or the authorities differ
+	 */
+	private static boolean changed(UserDetails cached, UserDetails fresh) {
+		Set<String> cachedAuthorities = AuthorityUtils.authorityListToSet(cached.getAuthorities());
+		return !Objects.equals(cached.getPassword(), fresh.getPassword())
+				|| !cachedAuthorities.equals(AuthorityUtils.authorityListToSet(fresh.getAuthorities()));
+	}
+}
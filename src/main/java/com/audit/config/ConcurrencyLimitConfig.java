@@ -0,0 +1,110 @@
+package com.audit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.audit.utility.AdaptiveConcurrencyLimiter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The {@code ConcurrencyLimitConfig} class registers a
+ * {@link ConcurrencyLimitFilter} in front of each end point group of
+ * {@link com.audit.v1.controllers.AuditController}.
+ *
+ * <p>
+ * Each group has its own {@link AdaptiveConcurrencyLimiter}, so the cheap
+ * reference number counts are never starved by the expensive audit listing
+ * queries:
+ * </p>
+ * <ul>
+ * <li>{@code count} - {@code /v1/ref-no-count}, tuned by
+ * {@code config.limiter.count.*}</li>
+ * <li>{@code listing} - {@code /v1/audit/**}, tuned by
+ * {@code config.limiter.listing.*}</li>
+ * </ul>
+ *
+ * <p>
+ * The filters run right after the security filter chain, so requests it
+ * rejects never count against the limits. That does not restrict the limits to
+ * authenticated requests: {@code /v1/audit/**} is open to anonymous callers
+ * apart from {@code /v1/audit/search}, so anonymous listing requests count
+ * against the {@code listing} limit like authenticated ones, and can shed
+ * them. The current limit and the requests in flight of each group are
+ * published as {@code http.server.concurrency.limit} and
+ * {@code http.server.concurrency.in-flight} gauges.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+	/**
+	 * Method to register the limiter of the reference number count end point
+	 *
+	 * @param registry     {@link MeterRegistry} publishing the limiter gauges
+	 * @param initialLimit Limit before any latency has been measured
+	 * @param minLimit     Lower bound of the limit
+	 * @param maxLimit     Upper bound of the limit
+	 * @param retryAfter   {@code Retry-After} of rejected requests in seconds
+	 * @return {@link FilterRegistrationBean} of the filter
+	 */
+	@Bean
+	FilterRegistrationBean<ConcurrencyLimitFilter> countConcurrencyLimitFilter(MeterRegistry registry,
+			@Value("${config.limiter.count.initial-limit:20}") int initialLimit,
+			@Value("${config.limiter.count.min-limit:4}") int minLimit,
+			@Value("${config.limiter.count.max-limit:200}") int maxLimit,
+			@Value("${config.limiter.retry-after-seconds:1}") long retryAfter) {
+		return registration("count", registry, new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit),
+				retryAfter, "/v1/ref-no-count");
+	}
+
+	/**
+	 * Method to register the limiter of the audit listing end points
+	 *
+	 * @param registry     {@link MeterRegistry} publishing the limiter gauges
+	 * @param initialLimit Limit before any latency has been measured
+	 * @param minLimit     Lower bound of the limit
+	 * @param maxLimit     Upper bound of the limit
+	 * @param retryAfter   {@code Retry-After} of rejected requests in seconds
+	 * @return {@link FilterRegistrationBean} of the filter
+	 */
+	@Bean
+	FilterRegistrationBean<ConcurrencyLimitFilter> listingConcurrencyLimitFilter(MeterRegistry registry,
+			@Value("${config.limiter.listing.initial-limit:10}") int initialLimit,
+			@Value("${config.limiter.listing.min-limit:2}") int minLimit,
+			@Value("${config.limiter.listing.max-limit:50}") int maxLimit,
+			@Value("${config.limiter.retry-after-seconds:1}") long retryAfter) {
+		return registration("listing", registry, new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit),
+				retryAfter, "/v1/audit", "/v1/audit/*");
+	}
+
+	/**
+	 * Method to create the filter registration and gauges of an end point group
+	 *
+	 * @param group       Name of the end point group
+	 * @param registry    {@link MeterRegistry} publishing the limiter gauges
+	 * @param limiter     {@link AdaptiveConcurrencyLimiter} of the group
+	 * @param retryAfter  {@code Retry-After} of rejected requests in seconds
+	 * @param urlPatterns URL patterns of the group
+	 * @return {@link FilterRegistrationBean} of the filter
+	 */
+	private static FilterRegistrationBean<ConcurrencyLimitFilter> registration(String group, MeterRegistry registry,
+			AdaptiveConcurrencyLimiter limiter, long retryAfter, String... urlPatterns) {
+		Gauge.builder("http.server.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+				.tag("group", group).register(registry);
+		Gauge.builder("http.server.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+				.tag("group", group).register(registry);
+
+		FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+				new ConcurrencyLimitFilter(limiter, retryAfter), urlPatterns);
+		registration.setName(group + "ConcurrencyLimitFilter");
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+		return registration;
+	}
+}
@@ -0,0 +1,72 @@
+package com.audit.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.audit.utility.AdaptiveConcurrencyLimiter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+
+/**
+ * Servlet filter shedding requests beyond the adaptive concurrency limit of an
+ * end point group.
+ *
+ * <p>
+ * Requests over the limit are answered immediately with
+ * {@code 503 Service Unavailable} and a {@code Retry-After} header, instead of
+ * queueing on the data base connection pool until they time out. The latency
+ * of every successful request is fed back to the {@link AdaptiveConcurrencyLimiter}
+ * to adjust the limit.
+ * </p>
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/web/filter/OncePerRequestFilter.html">
+ *      OncePerRequestFilter</a>
+ * @author Kabir Akware
+ */
+@AllArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	/**
+	 * {@link AdaptiveConcurrencyLimiter} of the end point group
+	 */
+	private AdaptiveConcurrencyLimiter limiter;
+
+	/**
+	 * Value of the {@code Retry-After} header in seconds
+	 */
+	private long retryAfterSeconds;
+
+	/**
+	 * Method to admit the request within the limit, or reject it
+	 *
+	 * @param request  {@link HttpServletRequest} object
+	 * @param response {@link HttpServletResponse} object
+	 * @param chain    {@link FilterChain} to continue the request
+	 */
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (!limiter.tryAcquire()) {
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			return;
+		}
+
+		long start = System.nanoTime();
+		boolean sample = false;
+		try {
+			chain.doFilter(request, response);
+			sample = response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value();
+		} finally {
+			limiter.release(System.nanoTime() - start, sample);
+		}
+	}
+}
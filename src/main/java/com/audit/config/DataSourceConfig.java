@@ -0,0 +1,159 @@
+package com.audit.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.audit.config.ReplicaRoutingDataSource.Route;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The {@code DataSourceConfig} class bulkheads the data base traffic into
+ * independent connection pools, so neither a burst of expensive audit queries
+ * nor an ingest storm can take every connection from the other side.
+ *
+ * <ul>
+ * <li>The {@code ingest} pool connects to {@code spring.datasource}, is tuned
+ * by {@code spring.datasource.hikari} and serves every statement of the KAFKA
+ * consumer threads.</li>
+ * <li>The {@code query} pool connects to {@code spring.datasource}, is tuned by
+ * {@code config.datasource.query.hikari} and serves the REST requests and the
+ * scheduled tasks. It gives up on a connection after 5 seconds by default, so
+ * an exhausted pool fails the request instead of holding the servlet
+ * thread.</li>
+ * <li>The {@code replica} pool is only created when
+ * {@code config.datasource.replica.url} is configured, is tuned by
+ * {@code config.datasource.replica.hikari} and serves the read-only
+ * {@code @Transactional} queries of the REST requests.</li>
+ * </ul>
+ *
+ * <p>
+ * Each pool has its own name, so its {@code hikaricp.connections.*} metrics are
+ * tagged with {@code pool=ingest}, {@code pool=query} or {@code pool=replica}.
+ * </p>
+ *
+ * @see ReplicaRoutingDataSource
+ * @author Kabir Akware
+ */
+@Configuration
+public class DataSourceConfig {
+
+	/**
+	 * Default time in milliseconds a query waits for a connection
+	 */
+	private static final long QUERY_CONNECTION_TIMEOUT_MS = 5000;
+
+	/**
+	 * Method to create the connection properties of the primary data base
+	 *
+	 * @return {@link DataSourceProperties} bound to {@code spring.datasource}
+	 */
+	@Bean
+	@Primary
+	@ConfigurationProperties("spring.datasource")
+	DataSourceProperties primaryDataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	/**
+	 * Method to create the connection properties of the replica data base
+	 *
+	 * @return {@link DataSourceProperties} bound to
+	 *         {@code config.datasource.replica}
+	 */
+	@Bean
+	@ConditionalOnProperty("config.datasource.replica.url")
+	@ConfigurationProperties("config.datasource.replica")
+	DataSourceProperties replicaDataSourceProperties() {
+		return new DataSourceProperties();
+	}
+
+	/**
+	 * Method to create the connection pool of the ingest path
+	 *
+	 * @return {@link HikariDataSource} tuned by {@code spring.datasource.hikari}
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource ingestDataSource() {
+		HikariDataSource pool = primaryDataSourceProperties().initializeDataSourceBuilder()
+				.type(HikariDataSource.class).build();
+		pool.setPoolName("ingest");
+		return pool;
+	}
+
+	/**
+	 * Method to create the connection pool of the query path
+	 *
+	 * @return {@link HikariDataSource} tuned by
+	 *         {@code config.datasource.query.hikari}
+	 */
+	@Bean
+	@ConfigurationProperties("config.datasource.query.hikari")
+	HikariDataSource queryDataSource() {
+		HikariDataSource pool = primaryDataSourceProperties().initializeDataSourceBuilder()
+				.type(HikariDataSource.class).build();
+		pool.setPoolName("query");
+		pool.setConnectionTimeout(QUERY_CONNECTION_TIMEOUT_MS);
+		return pool;
+	}
+
+	/**
+	 * Method to create the connection pool of the replica data base
+	 *
+	 * @param replicaDataSourceProperties Connection properties of the replica
+	 * @return {@link HikariDataSource} tuned by
+	 *         {@code config.datasource.replica.hikari}
+	 */
+	@Bean
+	@ConditionalOnProperty("config.datasource.replica.url")
+	@ConfigurationProperties("config.datasource.replica.hikari")
+	HikariDataSource replicaDataSource(
+			@Qualifier("replicaDataSourceProperties") DataSourceProperties replicaDataSourceProperties) {
+		HikariDataSource pool = replicaDataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class)
+				.build();
+		pool.setPoolName("replica");
+		pool.setConnectionTimeout(QUERY_CONNECTION_TIMEOUT_MS);
+		return pool;
+	}
+
+	/**
+	 * Method to create the routing {@link DataSource} used by JPA
+	 *
+	 * @param ingest  Connection pool of the ingest path
+	 * @param query   Connection pool of the query path
+	 * @param replica Connection pool of the replica data base, if configured
+	 * @return Lazily connecting {@link DataSource} routing on the workload of the
+	 *         thread and the transaction read-only flag
+	 */
+	@Bean
+	@Primary
+	DataSource dataSource(@Qualifier("ingestDataSource") DataSource ingest,
+			@Qualifier("queryDataSource") DataSource query,
+			@Qualifier("replicaDataSource") ObjectProvider<DataSource> replica) {
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(Route.INGEST, ingest);
+		targets.put(Route.QUERY, query);
+		DataSource replicaPool = replica.getIfAvailable();
+		if (Objects.nonNull(replicaPool))
+			targets.put(Route.REPLICA, replicaPool);
+
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+		routing.setTargetDataSources(targets);
+		routing.setDefaultTargetDataSource(query);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+}
@@ -0,0 +1,55 @@
+package com.audit.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+
+import com.audit.services.impl.AuditKafkaServiceImpl;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The {@code FastStartConfig} class keeps the KAFKA ingest path eager when the
+ * application starts with lazy initialization, so that only the beans of the
+ * ingest path are created before the listeners start.
+ *
+ * <p>
+ * With {@code config.fast-start.lazy-init=true} every bean is created on first
+ * use, which defers springdoc, the REST controllers, the admin end points and
+ * their dependencies until the first request. The listener beans, the
+ * listener container factories, the retry topic configuration, the lane
+ * priority policy, the log group offset migration, the data source and the
+ * entity manager factory, and through them everything the ingest path needs,
+ * are still created at start up.
+ * </p>
+ *
+ * <p>
+ * The {@code fast-start} Maven profile adds Spring AOT processing and a CDS
+ * archive on top of this; see {@code pom.xml}. Their effect on the time to the
+ * first consumed record depends on the deployment and has to be measured there
+ * with the {@code application.first.record.time} gauge of
+ * {@link FirstRecordInterceptor}.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Configuration
+public class FastStartConfig {
+
+	/**
+	 * Method to create a {@code @Bean} of {@link LazyInitializationExcludeFilter}
+	 * excluding the ingest beans from lazy initialization
+	 *
+	 * @return {@link LazyInitializationExcludeFilter} of the ingest beans
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter ingestBeansExcludeFilter() {
+		return LazyInitializationExcludeFilter.forBeanTypes(AuditKafkaServiceImpl.class,
+				ConcurrentKafkaListenerContainerFactory.class, RetryTopicConfiguration.class, LanePriorityPolicy.class,
+				LogGroupSeeder.class, DataSource.class, EntityManagerFactory.class);
+	}
+}
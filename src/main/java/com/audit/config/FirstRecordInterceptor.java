@@ -0,0 +1,65 @@
+package com.audit.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import com.utilities.log.Log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * {@link RecordInterceptor} measuring the time from JVM start to the first
+ * consumed KAFKA record.
+ *
+ * <p>
+ * This is the figure that matters when consumer replicas are added to catch up
+ * on lag, rather than the start up time of the Spring context. It is logged
+ * once and published as the {@code application.first.record.time} gauge, next
+ * to the {@code application.started.time} and {@code application.ready.time}
+ * gauges of Spring Boot.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+public class FirstRecordInterceptor implements RecordInterceptor<String, String> {
+
+	/**
+	 * JVM up time in milliseconds when the first record was consumed, or
+	 * {@code -1} until then
+	 */
+	private final AtomicLong firstRecordMillis = new AtomicLong(-1);
+
+	/**
+	 * Constructor to create the interceptor and register its gauge
+	 *
+	 * @param registry {@link MeterRegistry} publishing the gauge
+	 */
+	public FirstRecordInterceptor(MeterRegistry registry) {
+		TimeGauge.builder("application.first.record.time", firstRecordMillis, TimeUnit.MILLISECONDS,
+				millis -> millis.get() < 0 ? Double.NaN : millis.get())
+				.description("Time from JVM start to the first consumed KAFKA record").register(registry);
+	}
+
+	/**
+	 * Method to record the time of the first record
+	 *
+	 * @param record   {@link ConsumerRecord} about to be processed
+	 * @param consumer {@link Consumer} of the record
+	 * @return The same record
+	 */
+	@Override
+	public ConsumerRecord<String, String> intercept(ConsumerRecord<String, String> record,
+			Consumer<String, String> consumer) {
+		if (firstRecordMillis.get() < 0
+				&& firstRecordMillis.compareAndSet(-1, ManagementFactory.getRuntimeMXBean().getUptime()))
+			Log.info(this.getClass().getSimpleName(), "intercept", "first record consumed %s ms after JVM start",
+					firstRecordMillis.get());
+		return record;
+	}
+}
@@ -0,0 +1,270 @@
+package com.audit.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.CompositeRecordInterceptor;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The {@code KafkaListenerConfig} class creates one KAFKA listener container
+ * factory per lane, so the high volume, low value {@code log-topic} traffic
+ * never competes with the audit traffic for consumer threads, fetch capacity
+ * or data base connections.
+ *
+ * <ul>
+ * <li>{@code kafkaListenerContainerFactory} - audit lane, used by
+ * {@code audit-topic}, the low-priority audit topic and their retry topics;
+ * tuned by {@code config.kafka.listener.audit.*}. Its consumer threads use the
+ * ingest connection pool. Its records are acknowledged asynchronously, once
+ * they are durable, and a poll's offsets are committed after all of its
+ * records are acknowledged.</li>
+ * <li>{@code logListenerContainerFactory} - log lane, used by
+ * {@code log-topic}; tuned by {@code config.kafka.listener.logs.*} for fewer
+ * threads and larger, less frequent fetches. The log group is seeded from the
+ * offsets of the former shared group by {@link LogGroupSeeder}; without any
+ * committed offset it starts from the latest offset rather than replaying the
+ * topic.</li>
+ * <li>{@code revocationListenerContainerFactory} - bearer token revocations
+ * broadcast by {@code TokenServiceImpl}, one thread per instance. Each
+ * instance consumes in a consumer group of its own that never commits, so
+ * every start reads the revocations from the earliest retained offset.</li>
+ * </ul>
+ *
+ * <p>
+ * Each lane sets its concurrency, {@code max.poll.records},
+ * {@code fetch.min.bytes} and {@code fetch.max.wait.ms}. The consumer group of
+ * each listener is set on its {@code @KafkaListener}. Both lanes share the
+ * rebalance settings: the cooperative sticky assignor, and static membership
+ * with a {@code group.instance.id} derived from the EUREKA instance id and the
+ * listener id. {@link LanePriorityPolicy} pauses the log lane while the audit
+ * lane lags.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Configuration
+public class KafkaListenerConfig {
+
+	/**
+	 * KAFKA bootstrap servers
+	 */
+	private final String bootstrapServers;
+
+	/**
+	 * Partition assignors of the consumers
+	 */
+	private final String assignmentStrategy;
+
+	/**
+	 * {@code true} if the consumers join their group as static members
+	 */
+	private final boolean staticMembership;
+
+	/**
+	 * EUREKA instance id the static member ids are derived from
+	 */
+	private final String instanceId;
+
+	/**
+	 * Session timeout of the consumers in milliseconds
+	 */
+	private final int sessionTimeout;
+
+	/**
+	 * Heartbeat interval of the consumers in milliseconds
+	 */
+	private final int heartbeatInterval;
+
+	/**
+	 * {@link MeterRegistry} publishing the consumer metrics
+	 */
+	private final MeterRegistry registry;
+
+	/**
+	 * Constructor to create the configuration
+	 *
+	 * @param bootstrapServers   KAFKA bootstrap servers
+	 * @param assignmentStrategy Partition assignors of the consumers
+	 * @param staticMembership   {@code true} if the consumers join their group
+	 *                           as static members
+	 * @param instanceId         EUREKA instance id the static member ids are
+	 *                           derived from
+	 * @param sessionTimeout     Session timeout of the consumers in milliseconds
+	 * @param heartbeatInterval  Heartbeat interval of the consumers in
+	 *                           milliseconds
+	 * @param registry           {@link MeterRegistry} publishing the consumer
+	 *                           metrics
+	 */
+	public KafkaListenerConfig(@Value("${config.kafka.server-details}") String bootstrapServers,
+			@Value("${config.kafka.consumer.assignment-strategy:org.apache.kafka.clients.consumer.CooperativeStickyAssignor}") String assignmentStrategy,
+			@Value("${config.kafka.consumer.static-membership:true}") boolean staticMembership,
+			@Value("${eureka.instance.instance-id:${spring.application.name}}") String instanceId,
+			@Value("${config.kafka.consumer.session-timeout-ms:60000}") int sessionTimeout,
+			@Value("${config.kafka.consumer.heartbeat-interval-ms:3000}") int heartbeatInterval,
+			MeterRegistry registry) {
+		this.bootstrapServers = bootstrapServers;
+		this.assignmentStrategy = assignmentStrategy;
+		this.staticMembership = staticMembership;
+		this.instanceId = instanceId;
+		this.sessionTimeout = sessionTimeout;
+		this.heartbeatInterval = heartbeatInterval;
+		this.registry = registry;
+	}
+
+	/**
+	 * Method to create the listener container factory of the audit lane
+	 *
+	 * @param concurrency    Number of consumer threads per listener
+	 * @param maxPollRecords Maximum number of records of a poll
+	 * @param fetchMinBytes  Least data the broker returns for a fetch
+	 * @param fetchMaxWait   Longest time in milliseconds the broker waits for
+	 *                       {@code fetchMinBytes}
+	 * @return {@link ConcurrentKafkaListenerContainerFactory} of the audit lane
+	 */
+	@Bean
+	ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
+			@Value("${config.kafka.listener.audit.concurrency:${config.kafka.listener.concurrency:3}}") int concurrency,
+			@Value("${config.kafka.listener.audit.max-poll-records:${config.kafka.listener.max-poll-records:500}}") int maxPollRecords,
+			@Value("${config.kafka.listener.audit.fetch-min-bytes:1}") int fetchMinBytes,
+			@Value("${config.kafka.listener.audit.fetch-max-wait-ms:500}") int fetchMaxWait) {
+		Map<String, Object> props = consumerProps(maxPollRecords, fetchMinBytes, fetchMaxWait);
+		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		ConcurrentKafkaListenerContainerFactory<String, String> factory = containerFactory(props, concurrency);
+		// Record coordinates in the logging MDC, and time the first record after start up
+		factory.setRecordInterceptor(
+				new CompositeRecordInterceptor<>(new KafkaRecordMdc(), new FirstRecordInterceptor(registry)));
+
+		// Consumer threads use the ingest connection pool
+		SimpleAsyncTaskExecutor consumerExecutor = new SimpleAsyncTaskExecutor("kafka-ingest-");
+		consumerExecutor.setTaskDecorator(ReplicaRoutingDataSource::ingest);
+		factory.getContainerProperties().setListenerTaskExecutor(consumerExecutor);
+		// Records are acknowledged from the journal's group commit, out of order with those stored directly
+		factory.getContainerProperties().setAsyncAcks(true);
+		return factory;
+	}
+
+	/**
+	 * Method to create the listener container factory of the log lane
+	 *
+	 * @param concurrency    Number of consumer threads per listener
+	 * @param maxPollRecords Maximum number of records of a poll
+	 * @param fetchMinBytes  Least data the broker returns for a fetch
+	 * @param fetchMaxWait   Longest time in milliseconds the broker waits for
+	 *                       {@code fetchMinBytes}
+	 * @return {@link ConcurrentKafkaListenerContainerFactory} of the log lane
+	 */
+	@Bean
+	ConcurrentKafkaListenerContainerFactory<String, String> logListenerContainerFactory(
+			@Value("${config.kafka.listener.logs.concurrency:1}") int concurrency,
+			@Value("${config.kafka.listener.logs.max-poll-records:1000}") int maxPollRecords,
+			@Value("${config.kafka.listener.logs.fetch-min-bytes:65536}") int fetchMinBytes,
+			@Value("${config.kafka.listener.logs.fetch-max-wait-ms:1000}") int fetchMaxWait) {
+		Map<String, Object> props = consumerProps(maxPollRecords, fetchMinBytes, fetchMaxWait);
+		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+		ConcurrentKafkaListenerContainerFactory<String, String> factory = containerFactory(props, concurrency);
+		factory.setRecordInterceptor(new KafkaRecordMdc());
+		factory.getContainerProperties().setListenerTaskExecutor(new SimpleAsyncTaskExecutor("kafka-logs-"));
+		return factory;
+	}
+
+	/**
+	 * Method to create the listener container factory of the bearer token
+	 * revocations
+	 *
+	 * @return {@link ConcurrentKafkaListenerContainerFactory} of the revocations
+	 */
+	@Bean
+	ConcurrentKafkaListenerContainerFactory<String, String> revocationListenerContainerFactory() {
+		Map<String, Object> props = consumerProps(500, 1, 500);
+		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		ConcurrentKafkaListenerContainerFactory<String, String> factory = containerFactory(props, 1);
+		factory.getContainerProperties().setListenerTaskExecutor(new SimpleAsyncTaskExecutor("kafka-revocations-"));
+		return factory;
+	}
+
+	/**
+	 * Method to create a listener container factory with the settings shared by
+	 * the lanes
+	 *
+	 * @param props       Consumer properties of the lane
+	 * @param concurrency Number of consumer threads per listener
+	 * @return {@link ConcurrentKafkaListenerContainerFactory} of the lane
+	 */
+	private ConcurrentKafkaListenerContainerFactory<String, String> containerFactory(Map<String, Object> props,
+			int concurrency) {
+		DefaultKafkaConsumerFactory<String, String> consumerFactory = new DefaultKafkaConsumerFactory<>(props);
+		// Publishes the client metrics, rebalance latency included
+		consumerFactory.addListener(new MicrometerConsumerListener<>(registry));
+
+		ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(consumerFactory);
+		factory.setConcurrency(concurrency); // Number of consumer threads
+		// A static member restarted within the session timeout keeps its partitions without a rebalance
+		if (staticMembership)
+			factory.setContainerCustomizer(container -> {
+				Properties consumerProperties = new Properties();
+				consumerProperties.putAll(container.getContainerProperties().getKafkaConsumerProperties());
+				consumerProperties.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG,
+						groupInstanceId(container.getListenerId()));
+				container.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+			});
+		// Listeners acknowledge each record; failures are routed by RetryTopicConfig
+		factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+		return factory;
+	}
+
+	/**
+	 * Method to create the consumer properties shared by the lanes
+	 *
+	 * @param maxPollRecords Maximum number of records of a poll
+	 * @param fetchMinBytes  Least data the broker returns for a fetch
+	 * @param fetchMaxWait   Longest time in milliseconds the broker waits for
+	 *                       {@code fetchMinBytes}
+	 * @return Consumer properties
+	 */
+	private Map<String, Object> consumerProps(int maxPollRecords, int fetchMinBytes, int fetchMaxWait) {
+		Map<String, Object> props = new HashMap<>();
+		props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		// Undecodable records reach the error handler instead of failing every poll
+		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+		props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+		props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, StringDeserializer.class);
+		props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+		props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+		props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+		props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWait);
+		// Incremental rebalancing: only the partitions that move are revoked
+		props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, assignmentStrategy);
+		props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, sessionTimeout);
+		props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, heartbeatInterval);
+		return props;
+	}
+
+	/**
+	 * Method to derive the static group member id of a listener container from
+	 * the EUREKA instance id. The instance id holds the IP address and port of
+	 * the instance, so the member id only survives restarts that keep them. The
+	 * containers of a concurrent listener append their index to it.
+	 *
+	 * @param listenerId Id of the listener container
+	 * @return Value of {@code group.instance.id}
+	 */
+	private String groupInstanceId(String listenerId) {
+		return (instanceId + "-" + listenerId).replaceAll("[^A-Za-z0-9._-]+", "-");
+	}
+}
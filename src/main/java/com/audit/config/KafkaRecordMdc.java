@@ -0,0 +1,69 @@
+package com.audit.config;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * {@link RecordInterceptor} putting the coordinates of the KAFKA record being
+ * processed into the logging MDC.
+ *
+ * <p>
+ * Every log event written while a listener handles a record carries the
+ * {@code kafka.topic}, {@code kafka.partition} and {@code kafka.offset} fields,
+ * which the JSON layout writes as labels. The fields are removed once the
+ * record is done, so they never leak into the next record or the next poll.
+ * </p>
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-kafka/api/org/springframework/kafka/listener/RecordInterceptor.html">
+ *      RecordInterceptor</a>
+ * @author Kabir Akware
+ */
+public class KafkaRecordMdc implements RecordInterceptor<String, String> {
+
+	/**
+	 * MDC key of the topic
+	 */
+	public static final String TOPIC = "kafka.topic";
+
+	/**
+	 * MDC key of the partition
+	 */
+	public static final String PARTITION = "kafka.partition";
+
+	/**
+	 * MDC key of the offset
+	 */
+	public static final String OFFSET = "kafka.offset";
+
+	/**
+	 * Method to put the coordinates of the record into the MDC
+	 *
+	 * @param record   {@link ConsumerRecord} about to be processed
+	 * @param consumer {@link Consumer} of the record
+	 * @return The same record
+	 */
+	@Override
+	public ConsumerRecord<String, String> intercept(ConsumerRecord<String, String> record,
+			Consumer<String, String> consumer) {
+		ThreadContext.put(TOPIC, record.topic());
+		ThreadContext.put(PARTITION, Integer.toString(record.partition()));
+		ThreadContext.put(OFFSET, Long.toString(record.offset()));
+		return record;
+	}
+
+	/**
+	 * Method to remove the coordinates of the record from the MDC
+	 *
+	 * @param record   {@link ConsumerRecord} that was processed
+	 * @param consumer {@link Consumer} of the record
+	 */
+	@Override
+	public void afterRecord(ConsumerRecord<String, String> record, Consumer<String, String> consumer) {
+		ThreadContext.remove(TOPIC);
+		ThreadContext.remove(PARTITION);
+		ThreadContext.remove(OFFSET);
+	}
+}
@@ -0,0 +1,118 @@
+package com.audit.config;
+
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.utilities.log.Log;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Priority policy between the listener lanes of {@link KafkaListenerConfig}:
+ * the log lane yields to the audit lane while the audit lane falls behind.
+ *
+ * <p>
+ * Every {@code config.kafka.priority.check-interval-ms}, the lag of the
+ * {@code audit} listener is read from its consumer metrics. When it reaches
+ * {@code config.kafka.priority.lag-high-watermark} records, the {@code logs}
+ * listener is paused, freeing broker fetch capacity and CPU for the audit
+ * consumers; once the lag is back under
+ * {@code config.kafka.priority.lag-low-watermark} records, it is resumed. The
+ * gap between the two watermarks keeps the log lane from flapping.
+ * </p>
+ *
+ * <p>
+ * The policy only resumes a pause it made itself, so a pause requested on the
+ * {@code listeners} end point before the throttle is left alone. The state is
+ * published as the {@code kafka.listener.throttled} gauge. The policy is
+ * disabled by {@code config.kafka.priority.enabled=false}.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Component
+@ConditionalOnProperty(name = "config.kafka.priority.enabled", havingValue = "true", matchIfMissing = true)
+public class LanePriorityPolicy {
+
+	/**
+	 * Id of the listener with priority
+	 */
+	private static final String PRIORITY_LISTENER = "audit";
+
+	/**
+	 * Id of the listener throttled in favour of {@link #PRIORITY_LISTENER}
+	 */
+	private static final String THROTTLED_LISTENER = "logs";
+
+	/**
+	 * {@link KafkaListenerEndpointRegistry} holding the listener containers
+	 */
+	private final KafkaListenerEndpointRegistry registry;
+
+	/**
+	 * Audit lag in records at which the log lane is paused
+	 */
+	private final long highWatermark;
+
+	/**
+	 * Audit lag in records under which the log lane is resumed
+	 */
+	private final long lowWatermark;
+
+	/**
+	 * {@code true} while the log lane is paused by this policy
+	 */
+	private volatile boolean throttled;
+
+	/**
+	 * Constructor to create the policy
+	 *
+	 * @param registry      {@link KafkaListenerEndpointRegistry} holding the
+	 *                      listener containers
+	 * @param meterRegistry {@link MeterRegistry} publishing the throttle gauge
+	 * @param highWatermark Audit lag in records at which the log lane is paused
+	 * @param lowWatermark  Audit lag in records under which the log lane is
+	 *                      resumed
+	 */
+	public LanePriorityPolicy(KafkaListenerEndpointRegistry registry, MeterRegistry meterRegistry,
+			@Value("${config.kafka.priority.lag-high-watermark:10000}") long highWatermark,
+			@Value("${config.kafka.priority.lag-low-watermark:1000}") long lowWatermark) {
+		this.registry = registry;
+		this.highWatermark = highWatermark;
+		this.lowWatermark = Math.min(lowWatermark, highWatermark);
+		Gauge.builder("kafka.listener.throttled", this, policy -> policy.throttled ? 1 : 0)
+				.tag("listener", THROTTLED_LISTENER).register(meterRegistry);
+	}
+
+	/**
+	 * Method to pause or resume the log lane according to the audit lag
+	 */
+	@Scheduled(fixedDelayString = "${config.kafka.priority.check-interval-ms:5000}")
+	public void apply() {
+		MessageListenerContainer priority = registry.getListenerContainer(PRIORITY_LISTENER);
+		MessageListenerContainer throttledContainer = registry.getListenerContainer(THROTTLED_LISTENER);
+		if (Objects.isNull(priority) || Objects.isNull(throttledContainer) || !priority.isRunning())
+			return;
+
+		long lag = ListenerControlEndpoint.lag(priority);
+		if (!throttled && lag >= highWatermark && !throttledContainer.isPauseRequested()) {
+			throttledContainer.pause();
+			throttled = true;
+			Log.info(this.getClass().getSimpleName(), "apply", "%s listener lag %s, pausing %s listener",
+					PRIORITY_LISTENER, lag, THROTTLED_LISTENER);
+		} else if (throttled && lag <= lowWatermark) {
+			if (throttledContainer.isPauseRequested())
+				throttledContainer.resume();
+			throttled = false;
+			Log.info(this.getClass().getSimpleName(), "apply", "%s listener lag %s, resuming %s listener",
+					PRIORITY_LISTENER, lag, THROTTLED_LISTENER);
+		}
+	}
+}
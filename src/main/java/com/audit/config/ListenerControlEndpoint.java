@@ -0,0 +1,347 @@
+package com.audit.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.utilities.log.Log;
+
+/**
+ * Actuator end point {@code listeners} to inspect and tune the KAFKA listener
+ * containers at runtime, without a redeploy.
+ *
+ * <ul>
+ * <li>{@code GET listeners} - State of every listener container</li>
+ * <li>{@code GET listeners/{id}} - State of one listener container</li>
+ * <li>{@code POST listeners/{id}} - Change a listener container</li>
+ * </ul>
+ *
+ * <p>
+ * The state of a container holds its topics, assigned and paused partitions,
+ * paused state, consumer lag, and its current concurrency, batch size
+ * ({@code max.poll.records}) and flush interval ({@code fetch.max.wait.ms},
+ * the longest the broker waits to fill a batch).
+ * </p>
+ *
+ * <p>
+ * A change accepts these fields, all optional:
+ * </p>
+ * <ul>
+ * <li>{@code state} - {@code paused} or {@code running}, applied to the whole
+ * container, or only to the partitions of {@code topic} when it is given</li>
+ * <li>{@code concurrency}, {@code maxPollRecords}, {@code flushIntervalMs} -
+ * applied by restarting the listener container in place; the pause of the
+ * container and of its partitions is kept and the JVM is not restarted</li>
+ * </ul>
+ *
+ * <p>
+ * Changes last until the next restart of the application. The end point
+ * requires the {@code ADMIN} authority.
+ * </p>
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-boot/reference/actuator/endpoints.html#actuator.endpoints.implementing-custom">
+ *      Custom Endpoints</a>
+ * @author Kabir Akware
+ */
+@Component
+@Endpoint(id = "listeners")
+public class ListenerControlEndpoint {
+
+	/**
+	 * Per-partition lag metric of the KAFKA consumers
+	 */
+	private static final String RECORDS_LAG = "records-lag";
+
+	/**
+	 * {@link KafkaListenerEndpointRegistry} holding the listener containers
+	 */
+	private final KafkaListenerEndpointRegistry registry;
+
+	/**
+	 * Constructor to create the end point
+	 *
+	 * @param registry {@link KafkaListenerEndpointRegistry} holding the listener
+	 *                 containers
+	 */
+	public ListenerControlEndpoint(KafkaListenerEndpointRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Method to get the state of every listener container
+	 *
+	 * @return {@link ListenerState} of each container
+	 */
+	@ReadOperation
+	public List<ListenerState> listeners() {
+		List<ListenerState> states = new ArrayList<>();
+		for (MessageListenerContainer container : registry.getListenerContainers())
+			states.add(state(container));
+		return states;
+	}
+
+	/**
+	 * Method to get the state of a listener container
+	 *
+	 * @param id Id of the listener
+	 * @return {@link ListenerState} of the container, or {@code null} for an
+	 *         unknown id, answered with {@code 404 Not Found}
+	 */
+	@ReadOperation
+	public ListenerState listener(@Selector String id) {
+		MessageListenerContainer container = registry.getListenerContainer(id);
+		return Objects.isNull(container) ? null : state(container);
+	}
+
+	/**
+	 * Method to change a listener container
+	 *
+	 * @param id              Id of the listener
+	 * @param state           {@code paused} or {@code running}
+	 * @param topic           Topic to pause or resume, all topics of the
+	 *                        container when absent
+	 * @param concurrency     Number of consumer threads
+	 * @param maxPollRecords  Maximum number of records of a poll
+	 * @param flushIntervalMs Longest time in milliseconds the broker waits to
+	 *                        fill a batch
+	 * @return {@link ListenerState} of the container after the change, or
+	 *         {@code null} for an unknown id, answered with
+	 *         {@code 404 Not Found}
+	 */
+	@WriteOperation
+	public ListenerState update(@Selector String id, @Nullable String state, @Nullable String topic,
+			@Nullable Integer concurrency, @Nullable Integer maxPollRecords, @Nullable Integer flushIntervalMs) {
+		MessageListenerContainer container = registry.getListenerContainer(id);
+		if (Objects.isNull(container))
+			return null;
+
+		if (Objects.nonNull(concurrency) || Objects.nonNull(maxPollRecords) || Objects.nonNull(flushIntervalMs))
+			reconfigure(container, concurrency, maxPollRecords, flushIntervalMs);
+
+		if ("paused".equalsIgnoreCase(state))
+			pause(container, topic);
+		else if ("running".equalsIgnoreCase(state))
+			resume(container, topic);
+		else if (Objects.nonNull(state))
+			throw new InvalidEndpointRequestException("Invalid state " + state, "state must be paused or running");
+
+		return state(container);
+	}
+
+	/**
+	 * Method to apply new consumer settings by restarting the container in place
+	 *
+	 * @param container       {@link MessageListenerContainer} to change
+	 * @param concurrency     Number of consumer threads, unchanged when
+	 *                        {@code null}
+	 * @param maxPollRecords  Maximum number of records of a poll, unchanged when
+	 *                        {@code null}
+	 * @param flushIntervalMs Longest time the broker waits to fill a batch,
+	 *                        unchanged when {@code null}
+	 */
+	private void reconfigure(MessageListenerContainer container, Integer concurrency, Integer maxPollRecords,
+			Integer flushIntervalMs) {
+		if (Objects.nonNull(concurrency) && concurrency < 1 || Objects.nonNull(maxPollRecords) && maxPollRecords < 1
+				|| Objects.nonNull(flushIntervalMs) && flushIntervalMs < 0)
+			throw new InvalidEndpointRequestException("Invalid listener settings",
+					"concurrency and maxPollRecords must be positive, flushIntervalMs must not be negative");
+
+		boolean paused = container.isContainerPaused() || container.isPauseRequested();
+		List<TopicPartition> pausedPartitions = assigned(container, null).stream()
+				.filter(container::isPartitionPauseRequested).toList();
+		boolean running = container.isRunning();
+		container.stop();
+
+		if (Objects.nonNull(concurrency) && container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent)
+			concurrent.setConcurrency(concurrency);
+
+		ContainerProperties containerProperties = container.getContainerProperties();
+		Properties consumerProperties = new Properties();
+		consumerProperties.putAll(containerProperties.getKafkaConsumerProperties());
+		if (Objects.nonNull(maxPollRecords))
+			consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords.toString());
+		if (Objects.nonNull(flushIntervalMs))
+			consumerProperties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, flushIntervalMs.toString());
+		containerProperties.setKafkaConsumerProperties(consumerProperties);
+
+		if (running) {
+			container.start();
+			if (paused)
+				container.pause();
+			// The restarted consumers have no partitions yet: every one of them is asked
+			// to pause them, and the consumer a partition is assigned to pauses it
+			for (MessageListenerContainer consumer : consumers(container))
+				for (TopicPartition partition : pausedPartitions)
+					consumer.pausePartition(partition);
+		}
+		Log.info(this.getClass().getSimpleName(), "reconfigure",
+				"listener %s reconfigured: concurrency=%s, maxPollRecords=%s, flushIntervalMs=%s",
+				container.getListenerId(), concurrency, maxPollRecords, flushIntervalMs);
+	}
+
+	/**
+	 * Method to pause a container, or the partitions of one of its topics
+	 *
+	 * @param container {@link MessageListenerContainer} to pause
+	 * @param topic     Topic to pause, the whole container when {@code null}
+	 */
+	private void pause(MessageListenerContainer container, String topic) {
+		if (Objects.isNull(topic))
+			container.pause();
+		else
+			for (TopicPartition partition : assigned(container, topic))
+				container.pausePartition(partition);
+		Log.info(this.getClass().getSimpleName(), "pause", "listener %s paused, topic=%s", container.getListenerId(),
+				topic);
+	}
+
+	/**
+	 * Method to resume a container, or the partitions of one of its topics
+	 *
+	 * @param container {@link MessageListenerContainer} to resume
+	 * @param topic     Topic to resume, the whole container when {@code null}
+	 */
+	private void resume(MessageListenerContainer container, String topic) {
+		if (Objects.isNull(topic))
+			container.resume();
+		// Every consumer is asked, as a pause kept by reconfigure is requested from
+		// all of them
+		for (MessageListenerContainer consumer : consumers(container))
+			for (TopicPartition partition : assigned(container, topic))
+				consumer.resumePartition(partition);
+		Log.info(this.getClass().getSimpleName(), "resume", "listener %s resumed, topic=%s",
+				container.getListenerId(), topic);
+	}
+
+	/**
+	 * Method to get the partitions assigned to a container
+	 *
+	 * @param container {@link MessageListenerContainer} of the partitions
+	 * @param topic     Topic of the partitions, all topics when {@code null}
+	 * @return Assigned {@link TopicPartition}s
+	 */
+	private static List<TopicPartition> assigned(MessageListenerContainer container, String topic) {
+		Collection<TopicPartition> partitions = container.getAssignedPartitions();
+		if (Objects.isNull(partitions))
+			return List.of();
+		return partitions.stream().filter(partition -> Objects.isNull(topic) || partition.topic().equals(topic))
+				.toList();
+	}
+
+	/**
+	 * Method to get the containers of the consumers of a container
+	 *
+	 * @param container {@link MessageListenerContainer} of the consumers
+	 * @return Child containers of a {@link ConcurrentMessageListenerContainer},
+	 *         the container itself otherwise
+	 */
+	private static List<? extends MessageListenerContainer> consumers(MessageListenerContainer container) {
+		return container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent ? concurrent.getContainers()
+				: List.of(container);
+	}
+
+	/**
+	 * Method to collect the state of a container
+	 *
+	 * @param container {@link MessageListenerContainer} to describe
+	 * @return {@link ListenerState} of the container
+	 */
+	private ListenerState state(MessageListenerContainer container) {
+		ContainerProperties containerProperties = container.getContainerProperties();
+		Properties consumerProperties = containerProperties.getKafkaConsumerProperties();
+		List<String> paused = assigned(container, null).stream().filter(container::isPartitionPaused)
+				.map(TopicPartition::toString).toList();
+
+		return new ListenerState(container.getListenerId(), container.getGroupId(),
+				Objects.isNull(containerProperties.getTopics()) ? List.of()
+						: Arrays.asList(containerProperties.getTopics()),
+				container.isRunning(), container.isPauseRequested(), container.isContainerPaused(),
+				assigned(container, null).stream().map(TopicPartition::toString).toList(), paused,
+				container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent ? concurrent.getConcurrency()
+						: 1,
+				Integer.parseInt(consumerProperties.getProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+						factorySetting(container, ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500))),
+				Integer.parseInt(consumerProperties.getProperty(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG,
+						factorySetting(container, ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500))),
+				lag(container));
+	}
+
+	/**
+	 * Method to get a consumer setting from the consumer factory of a container,
+	 * i.e. of its lane in {@link KafkaListenerConfig}
+	 *
+	 * @param container    {@link MessageListenerContainer} of the consumers
+	 * @param name         Name of the consumer setting
+	 * @param defaultValue Default of the KAFKA consumer
+	 * @return Value of the setting
+	 */
+	private static String factorySetting(MessageListenerContainer container, String name, int defaultValue) {
+		Object value = container instanceof AbstractMessageListenerContainer<?, ?> listenerContainer
+				? listenerContainer.getConsumerFactory().getConfigurationProperties().get(name)
+				: null;
+		return String.valueOf(Objects.isNull(value) ? defaultValue : value);
+	}
+
+	/**
+	 * Method to sum the lag of the partitions assigned to the consumers of a
+	 * container
+	 *
+	 * @param container {@link MessageListenerContainer} of the consumers
+	 * @return Total lag in records, as last reported by the consumers
+	 */
+	static long lag(MessageListenerContainer container) {
+		long lag = 0;
+		for (Map<MetricName, ? extends Metric> metrics : container.metrics().values())
+			for (Map.Entry<MetricName, ? extends Metric> metric : metrics.entrySet())
+				if (RECORDS_LAG.equals(metric.getKey().name()) && metric.getKey().tags().containsKey("partition")
+						&& metric.getValue().metricValue() instanceof Number value && !Double.isNaN(value.doubleValue()))
+					lag += value.longValue();
+		return lag;
+	}
+
+	/**
+	 * State of a listener container
+	 *
+	 * @param id                 Id of the listener
+	 * @param groupId            Consumer group of the listener
+	 * @param topics             Topics of the listener
+	 * @param running            {@code true} if the container is running
+	 * @param pauseRequested     {@code true} if a pause of the container was
+	 *                           requested
+	 * @param paused             {@code true} if the consumers of the container
+	 *                           are paused
+	 * @param assignedPartitions Partitions assigned to the consumers
+	 * @param pausedPartitions   Assigned partitions that are paused
+	 * @param concurrency        Number of consumer threads
+	 * @param maxPollRecords     Maximum number of records of a poll
+	 * @param flushIntervalMs    Longest time in milliseconds the broker waits to
+	 *                           fill a batch
+	 * @param lag                Total lag of the assigned partitions in records
+	 */
+	public record ListenerState(String id, String groupId, List<String> topics, boolean running,
+			boolean pauseRequested, boolean paused, List<String> assignedPartitions, List<String> pausedPartitions,
+			int concurrency, int maxPollRecords, int flushIntervalMs, long lag) {
+	}
+}
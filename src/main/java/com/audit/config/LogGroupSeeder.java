@@ -0,0 +1,133 @@
+package com.audit.config;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.utilities.log.Log;
+
+/**
+ * One-off migration of the {@code log-topic} offsets to the consumer group of
+ * the log lane of {@link KafkaListenerConfig}.
+ *
+ * <p>
+ * The {@code logs} listener used to consume in the shared
+ * {@code my-consumer-group} group and now has a group of its own,
+ * {@code config.kafka.listener.logs.group-id}, which starts from the latest
+ * offset when it has none. Left alone, the first start of the new group would
+ * skip every record produced to {@code log-topic} since the old group last
+ * committed. Before the listener containers start, and only while the new
+ * group has no committed offset on {@code log-topic}, the offsets the old
+ * group committed on it are copied to the new group, so the log lane carries
+ * on where the shared group stopped.
+ * </p>
+ *
+ * <p>
+ * The old group is set by {@code config.kafka.listener.logs.seed-from-group};
+ * the migration is disabled by
+ * {@code config.kafka.listener.logs.seed-enabled=false}. A failed migration is
+ * logged and the log lane falls back to {@code auto.offset.reset}.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Component
+@ConditionalOnProperty(name = "config.kafka.listener.logs.seed-enabled", havingValue = "true", matchIfMissing = true)
+public class LogGroupSeeder implements SmartInitializingSingleton {
+
+	/**
+	 * Topic consumed by the log lane
+	 */
+	private static final String TOPIC = "log-topic";
+
+	/**
+	 * Longest time in seconds an admin request may take
+	 */
+	private static final long TIMEOUT_SECONDS = 30;
+
+	/**
+	 * KAFKA bootstrap servers
+	 */
+	private final String bootstrapServers;
+
+	/**
+	 * Consumer group of the log lane
+	 */
+	private final String groupId;
+
+	/**
+	 * Consumer group the log lane used before
+	 */
+	private final String seedFromGroup;
+
+	/**
+	 * Constructor to create the migration
+	 *
+	 * @param bootstrapServers KAFKA bootstrap servers
+	 * @param groupId          Consumer group of the log lane
+	 * @param seedFromGroup    Consumer group the log lane used before
+	 */
+	public LogGroupSeeder(@Value("${config.kafka.server-details}") String bootstrapServers,
+			@Value("${config.kafka.listener.logs.group-id:log-consumer-group}") String groupId,
+			@Value("${config.kafka.listener.logs.seed-from-group:my-consumer-group}") String seedFromGroup) {
+		this.bootstrapServers = bootstrapServers;
+		this.groupId = groupId;
+		this.seedFromGroup = seedFromGroup;
+	}
+
+	/**
+	 * Method to copy the {@code log-topic} offsets of the old group to the log
+	 * lane group, once all singletons exist and before the listener containers
+	 * start
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (groupId.equals(seedFromGroup))
+			return;
+
+		try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+			if (!offsets(admin, groupId).isEmpty())
+				return;
+
+			Map<TopicPartition, OffsetAndMetadata> seed = offsets(admin, seedFromGroup);
+			if (seed.isEmpty())
+				return;
+
+			admin.alterConsumerGroupOffsets(groupId, seed).all().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			Log.info(this.getClass().getSimpleName(), "afterSingletonsInstantiated",
+					"seeded %s offsets of %s from %s: %s", groupId, TOPIC, seedFromGroup, seed);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			Log.error(this.getClass().getSimpleName(), "afterSingletonsInstantiated",
+					"seeding %s offsets of %s from %s failed, the log lane starts from auto.offset.reset:%n%s",
+					groupId, TOPIC, seedFromGroup, ExceptionUtils.getStackTrace(e));
+		}
+	}
+
+	/**
+	 * Method to read the offsets a group committed on {@code log-topic}
+	 *
+	 * @param admin   {@link Admin} client
+	 * @param groupId Consumer group
+	 * @return Committed offsets by partition
+	 * @throws Exception If the offsets cannot be read
+	 */
+	private static Map<TopicPartition, OffsetAndMetadata> offsets(Admin admin, String groupId) throws Exception {
+		return admin.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata()
+				.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).entrySet().stream()
+				.filter(entry -> TOPIC.equals(entry.getKey().topic()) && Objects.nonNull(entry.getValue()))
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+}
@@ -0,0 +1,64 @@
+package com.audit.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.async.AsyncLoggerContext;
+import org.apache.logging.log4j.core.jmx.RingBufferAdmin;
+import org.apache.logging.log4j.spi.LoggerContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.audit.utility.ThresholdDiscardPolicy;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The {@code LoggingConfig} class publishes the metrics of the asynchronous
+ * logging pipeline configured in {@code log4j2.component.properties} and
+ * {@code log4j2-spring.xml}.
+ *
+ * <ul>
+ * <li>{@code log4j2.ringbuffer.size} - Capacity of the async logger ring
+ * buffer</li>
+ * <li>{@code log4j2.ringbuffer.remaining} - Free slots of the ring buffer; a
+ * value close to zero means the appenders cannot keep up</li>
+ * <li>{@code log4j2.ringbuffer.discarded} - Events dropped by
+ * {@link ThresholdDiscardPolicy} while the ring buffer was full</li>
+ * </ul>
+ *
+ * <p>
+ * No ring buffer metric is published when Log4j2 runs without the async
+ * logger context selector, e.g. when it was overridden by a system property.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Configuration
+public class LoggingConfig {
+
+	/**
+	 * Method to create a {@code @Bean} of {@link MeterBinder} registering the ring
+	 * buffer metrics
+	 *
+	 * @return {@link MeterBinder} of the logging metrics
+	 */
+	@Bean
+	MeterBinder asyncLoggingMetrics() {
+		return registry -> {
+			FunctionCounter.builder("log4j2.ringbuffer.discarded", ThresholdDiscardPolicy.class,
+					ignored -> ThresholdDiscardPolicy.discarded())
+					.description("Log events dropped while the async logger ring buffer was full").register(registry);
+
+			LoggerContext context = LogManager.getContext(false);
+			if (!(context instanceof AsyncLoggerContext asyncContext))
+				return;
+
+			RingBufferAdmin ringBuffer = asyncContext.createRingBufferAdmin();
+			Gauge.builder("log4j2.ringbuffer.size", ringBuffer, RingBufferAdmin::getBufferSize)
+					.description("Capacity of the async logger ring buffer").register(registry);
+			Gauge.builder("log4j2.ringbuffer.remaining", ringBuffer, RingBufferAdmin::getRemainingCapacity)
+					.description("Free slots of the async logger ring buffer").register(registry);
+		};
+	}
+}
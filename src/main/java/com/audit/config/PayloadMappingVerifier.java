@@ -0,0 +1,85 @@
+package com.audit.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import com.audit.utility.PayloadCompressionConverter;
+import com.model.entity.Audit;
+import com.utilities.exceptions.ConfigException;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Start up check of the {@code META-INF/orm.xml} override applying
+ * {@link PayloadCompressionConverter} to the {@link Audit} entity.
+ *
+ * <p>
+ * The entity comes from the model module, so the override names its
+ * attributes by string and nothing checks them at compile time. Once the
+ * persistence unit is built, the metamodel of {@link Audit} must hold the
+ * overridden attributes as basic {@link String} attributes; a rename or a
+ * change of type in the model module fails the start up here instead of
+ * leaving the bodies uncompressed, or mapped twice.
+ * </p>
+ *
+ * <p>
+ * The override only adds the converter. It restates no {@code column} or
+ * {@code lob} element and the mapping file is not metadata complete, so the
+ * column mapping annotated on the entity still applies. The converter never
+ * stores a value longer than the one it was given, so it fits any column the
+ * uncompressed body fits.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Component
+public class PayloadMappingVerifier implements SmartInitializingSingleton {
+
+	/**
+	 * Attributes of {@link Audit} the converter is applied to by
+	 * {@code META-INF/orm.xml}
+	 */
+	private static final List<String> ATTRIBUTES = List.of("request", "response");
+
+	/**
+	 * {@link EntityManagerFactory} of the audit persistence unit
+	 */
+	private final EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Constructor to create the check
+	 *
+	 * @param entityManagerFactory {@link EntityManagerFactory} of the audit
+	 *                             persistence unit
+	 */
+	public PayloadMappingVerifier(EntityManagerFactory entityManagerFactory) {
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * Method to check the overridden attributes once the persistence unit is
+	 * built
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		EntityType<Audit> audit = entityManagerFactory.getMetamodel().entity(Audit.class);
+		for (String name : ATTRIBUTES) {
+			Attribute<? super Audit, ?> attribute;
+			try {
+				attribute = audit.getAttribute(name);
+			} catch (IllegalArgumentException e) {
+				throw ConfigException.getInstance("META-INF/orm.xml overrides " + Audit.class.getName() + "." + name
+						+ ", which the entity does not map");
+			}
+			if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+					|| attribute.getJavaType() != String.class)
+				throw ConfigException.getInstance("META-INF/orm.xml converts " + Audit.class.getName() + "." + name
+						+ " as a basic String, but it is mapped as " + attribute.getPersistentAttributeType() + " "
+						+ attribute.getJavaType().getName());
+		}
+	}
+}
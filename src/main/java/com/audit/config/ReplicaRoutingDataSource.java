@@ -0,0 +1,108 @@
+package com.audit.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routing {@link javax.sql.DataSource} that keeps the ingest and the query
+ * traffic in separate connection pools, and sends read-only queries to the
+ * replica data base when one is configured.
+ *
+ * <ul>
+ * <li>{@link Route#INGEST} - Every statement issued by a thread running an
+ * ingest task, see {@link #ingest(Runnable)}</li>
+ * <li>{@link Route#REPLICA} - Read-only transactions of every other thread,
+ * when a replica is configured</li>
+ * <li>{@link Route#QUERY} - Everything else; this is also the default target,
+ * so read-only transactions fall back to it when no replica is configured</li>
+ * </ul>
+ *
+ * <p>
+ * The routing decision is taken when the physical connection is fetched, so
+ * this data source is expected to be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * That way the read-only flag of the surrounding {@code @Transactional} method
+ * is already known when the target is looked up.
+ * </p>
+ *
+ * <p>
+ * Callers that must read their own writes can force the primary data base for
+ * a unit of work with {@link #onPrimary(Supplier)}.
+ * </p>
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/jdbc/datasource/lookup/AbstractRoutingDataSource.html">
+ *      AbstractRoutingDataSource</a>
+ * @author Kabir Akware
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	/**
+	 * Lookup keys of the target data sources
+	 */
+	public enum Route {
+		INGEST, QUERY, REPLICA
+	}
+
+	/**
+	 * Flag to pin the current thread to the primary data base
+	 */
+	private static final ThreadLocal<Boolean> PRIMARY_PINNED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	/**
+	 * Flag marking the current thread as an ingest thread
+	 */
+	private static final ThreadLocal<Boolean> INGEST = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	/**
+	 * Method to resolve the target data source for the current connection request
+	 *
+	 * @return {@link Route} of the data source to be used
+	 */
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (INGEST.get())
+			return Route.INGEST;
+		return !PRIMARY_PINNED.get() && TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA
+				: Route.QUERY;
+	}
+
+	/**
+	 * Method to execute a unit of work against the primary data base even when
+	 * it runs inside a read-only transaction
+	 *
+	 * @param <T>  Type of the result
+	 * @param work Unit of work to execute
+	 * @return Result of the unit of work
+	 */
+	public static <T> T onPrimary(Supplier<T> work) {
+		boolean pinned = PRIMARY_PINNED.get();
+		PRIMARY_PINNED.set(Boolean.TRUE);
+		try {
+			return work.get();
+		} finally {
+			PRIMARY_PINNED.set(pinned);
+		}
+	}
+
+	/**
+	 * Method to wrap a task so every statement it issues uses the ingest pool.
+	 * It is used as the {@link org.springframework.core.task.TaskDecorator} of
+	 * the KAFKA consumer threads.
+	 *
+	 * @param task Task to run on the ingest pool
+	 * @return Wrapped task
+	 */
+	public static Runnable ingest(Runnable task) {
+		return () -> {
+			INGEST.set(Boolean.TRUE);
+			try {
+				task.run();
+			} finally {
+				INGEST.remove();
+			}
+		};
+	}
+}
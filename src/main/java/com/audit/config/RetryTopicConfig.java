@@ -0,0 +1,117 @@
+package com.audit.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.annotation.EnableKafkaRetryTopic;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * The {@code RetryTopicConfig} class moves failing audit records off the main
+ * partitions, so one poison record no longer blocks the healthy records behind
+ * it.
+ *
+ * <p>
+ * A record of {@code audit-topic} or of the low-priority audit topic whose
+ * listener throws is published to the next retry topic, {@code <topic>-retry-0}
+ * to {@code <topic>-retry-N}, and its offset is committed. Each retry topic is
+ * consumed by its own containers after an exponentially increasing delay,
+ * starting at {@code config.kafka.retry.initial-delay-ms}, multiplied by
+ * {@code config.kafka.retry.multiplier} and capped at
+ * {@code config.kafka.retry.max-delay-ms}. A record still failing after
+ * {@code config.kafka.retry.attempts} deliveries lands on {@code <topic>-dlt},
+ * where it is logged with the exception headers of its last failure.
+ * </p>
+ *
+ * <p>
+ * Failures that can never succeed, a payload that is not a valid audit or an
+ * audit the data base rejects, go straight to the dead-letter topic, as do the
+ * deserialization failures trapped by the
+ * {@link org.springframework.kafka.support.serializer.ErrorHandlingDeserializer}
+ * of {@link KafkaListenerConfig}. Unavailability of the data base is not a failure here,
+ * since {@link com.audit.services.JournalService} spills those audits to its
+ * journal. A retried record is persisted out of order with respect to the
+ * records of its partition.
+ * </p>
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-kafka/reference/retrytopic.html">
+ *      Non-Blocking Retries</a>
+ * @author Kabir Akware
+ */
+@Configuration
+@EnableKafkaRetryTopic
+public class RetryTopicConfig {
+
+	/**
+	 * Method to create a {@code @Bean} of {@link KafkaTemplate} publishing to the
+	 * retry and dead-letter topics
+	 *
+	 * @param bootstrapServers KAFKA bootstrap servers
+	 * @return {@link KafkaTemplate} of string records
+	 */
+	@Bean
+	KafkaTemplate<String, String> kafkaTemplate(@Value("${config.kafka.server-details}") String bootstrapServers) {
+		Map<String, Object> props = new HashMap<>();
+		props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		props.put(ProducerConfig.ACKS_CONFIG, "all");
+		props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+		return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+	}
+
+	/**
+	 * Method to create a {@code @Bean} of {@link KafkaAdmin} creating the retry
+	 * and dead-letter topics on the broker of the application
+	 *
+	 * @param bootstrapServers KAFKA bootstrap servers
+	 * @return {@link KafkaAdmin} object
+	 */
+	@Bean
+	KafkaAdmin kafkaAdmin(@Value("${config.kafka.server-details}") String bootstrapServers) {
+		return new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+	}
+
+	/**
+	 * Method to create a {@code @Bean} of {@link RetryTopicConfiguration} for the
+	 * audit topics
+	 *
+	 * @param template         {@link KafkaTemplate} publishing the failed records
+	 * @param lowPriorityTopic Low-priority audit topic
+	 * @param attempts         Deliveries of a record, the first included, before
+	 *                         it is dead-lettered
+	 * @param initialDelay     Delay in milliseconds of the first retry topic
+	 * @param multiplier       Factor applied to the delay of each next retry
+	 *                         topic
+	 * @param maxDelay         Upper bound of the delay in milliseconds
+	 * @return {@link RetryTopicConfiguration} of the audit topics
+	 */
+	@Bean
+	RetryTopicConfiguration auditRetryTopics(KafkaTemplate<String, String> template,
+			@Value("${config.kafka.audit-low-priority-topic:audit-low-priority-topic}") String lowPriorityTopic,
+			@Value("${config.kafka.retry.attempts:4}") int attempts,
+			@Value("${config.kafka.retry.initial-delay-ms:1000}") long initialDelay,
+			@Value("${config.kafka.retry.multiplier:5}") double multiplier,
+			@Value("${config.kafka.retry.max-delay-ms:60000}") long maxDelay) {
+		return RetryTopicConfigurationBuilder.newInstance().includeTopics(List.of("audit-topic", lowPriorityTopic))
+				.maxAttempts(Math.max(1, attempts)).exponentialBackoff(initialDelay, multiplier, maxDelay)
+				.suffixTopicsWithIndexValues().traversingCauses()
+				.notRetryOn(List.of(JsonParseException.class, DataIntegrityViolationException.class))
+				.listenerFactory("kafkaListenerContainerFactory").create(template);
+	}
+}
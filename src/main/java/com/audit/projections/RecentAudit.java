@@ -0,0 +1,26 @@
+package com.audit.projections;
+
+import com.model.projections.AuditProjection;
+
+/**
+ * Projection of {@link com.model.entity.Audit} read to fill the recent audit
+ * buffer: the columns of {@link AuditProjection} together with the audit id
+ * the buffer orders its entries by.
+ * 
+ * <p>
+ * As a closed interface projection, it only selects these columns, so the
+ * request and response bodies are neither read nor decompressed unless
+ * {@link AuditProjection} exposes them.
+ * </p>
+ * 
+ * @author Kabir Akware
+ */
+public interface RecentAudit extends AuditProjection {
+
+	/**
+	 * Method to get the id of the audit
+	 * 
+	 * @return Audit id
+	 */
+	Integer getId();
+}
@@ -0,0 +1,13 @@
+package com.audit.projections;
+
+/**
+ * Lightweight projection of {@link com.model.entity.Users} exposing the user
+ * name and authorities of a user, without the password hash.
+ * 
+ * @param userName    User name of the user
+ * @param authorities Authorities granted to the user
+ * 
+ * @author Kabir Akware
+ */
+public record UserSummary(String userName, String authorities) {
+}
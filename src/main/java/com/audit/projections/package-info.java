@@ -0,0 +1,22 @@
+/**
+ * This package contains the lightweight projections returned by the
+ * repositories of the application.
+ * 
+ * <p>
+ * Projections carry only the columns required by a use case and are never
+ * managed by the persistence context, which keeps large listings cheap on the
+ * heap and free of sensitive columns such as password hashes.
+ * </p>
+ * 
+ * <h2>Components</h2>
+ * <ul>
+ * <li>{@link com.audit.projections.UserSummary} - User name and authorities of
+ * a user</li>
+ * <li>{@link com.audit.projections.RecentAudit} - Listing columns and id of an
+ * audit, filling the recent audit buffer</li>
+ * </ul>
+ * 
+ * 
+ * @author Kabir Akware
+ */
+package com.audit.projections;
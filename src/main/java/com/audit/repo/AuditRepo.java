@@ -1,6 +1,8 @@
 package com.audit.repo;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,12 +10,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.model.entity.Audit;
 import com.model.projections.AuditProjection;
 
-import jakarta.transaction.Transactional;
-
 /**
  * Repository interface for managing {@link Audit} entities.
  * <p>
@@ -52,6 +53,14 @@ import jakarta.transaction.Transactional;
  * database</li>
  * </ul>
  * 
+ * <p>
+ * Statements issued by the KAFKA consumer threads use the ingest connection
+ * pool and every other statement the query pool, see
+ * {@link com.audit.config.DataSourceConfig}. Query methods are declared
+ * {@code readOnly}, so they are served by the read replica when one is
+ * configured.
+ * </p>
+ * 
  * 
  * @see <a href =
  *      "https://docs.spring.io/spring-data/jpa/docs/current/api/org/springframework/data/jpa/repository/JpaRepository.html">
@@ -61,7 +70,7 @@ import jakarta.transaction.Transactional;
  *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/stereotype/Repository.html">
  *      Repository </a>
  * @see <a href =
- *      "https://jakarta.ee/specifications/transactions/2.0/apidocs/jakarta/transaction/transactional">
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/transaction/annotation/Transactional.html">
  *      Transactional </a>
  * @author Kabir Akware
  */
@@ -77,8 +86,71 @@ public interface AuditRepo extends JpaRepository<Audit, Integer> {
 	 * 
 	 * @return List of {@link Audit} entity returned by executing the query
 	 */
+	@Transactional(readOnly = true)
 	Page<AuditProjection> findAllByOrderByIdDesc(Pageable page);
 
+	/**
+	 * Method to get the most recent audit entities from
+	 * {@code service_audit.audit} table with page details provided in the method
+	 * parameter
+	 * 
+	 * @param page {@code Pageable} interface containing pagination details
+	 * 
+	 * @return List of {@link Audit} entity returned by executing the query
+	 */
+	@Transactional(readOnly = true)
+	List<Audit> findByOrderByIdDesc(Pageable page);
+
+	/**
+	 * Method to get the audit entities above an id from
+	 * {@code service_audit.audit} table in id order, to tail the table
+	 * 
+	 * @param id   Id the audits are above
+	 * @param page {@code Pageable} interface containing pagination details
+	 * 
+	 * @return List of {@link Audit} entity returned by executing the query
+	 */
+	@Transactional(readOnly = true)
+	List<Audit> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable page);
+
+	/**
+	 * Method to get the most recent audits from {@code service_audit.audit}
+	 * table as a projection, with page details provided in the method parameter
+	 * 
+	 * @param <T>  Type of the projection
+	 * @param page {@code Pageable} interface containing pagination details
+	 * @param type Class of the projection
+	 * 
+	 * @return List of projections returned by executing the query
+	 */
+	@Transactional(readOnly = true)
+	<T> List<T> findByOrderByIdDesc(Pageable page, Class<T> type);
+
+	/**
+	 * Method to get the audits above an id from {@code service_audit.audit}
+	 * table in id order as a projection, to tail the table
+	 * 
+	 * @param <T>  Type of the projection
+	 * @param id   Id the audits are above
+	 * @param page {@code Pageable} interface containing pagination details
+	 * @param type Class of the projection
+	 * 
+	 * @return List of projections returned by executing the query
+	 */
+	@Transactional(readOnly = true)
+	<T> List<T> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable page, Class<T> type);
+
+	/**
+	 * Method to get the audits with the given ids from
+	 * {@code service_audit.audit} table, newest first
+	 * 
+	 * @param ids Ids of the audits
+	 * 
+	 * @return List of {@link AuditProjection} returned by executing the query
+	 */
+	@Transactional(readOnly = true)
+	List<AuditProjection> findByIdInOrderByIdDesc(Collection<Integer> ids);
+
 	/**
 	 * Method to get count of reference number available in
 	 * {@code service_audit.audit} table
@@ -88,7 +160,28 @@ public interface AuditRepo extends JpaRepository<Audit, Integer> {
 	 * @return Count of reference number for time between {@code now()} and
 	 *         {@code since}
 	 */
+	@Transactional(readOnly = true)
 	@Query("select count(a) from Audit a where a.refNo=:refNo and a.date >= :since")
 	int refNoCount(@Param("refNo") String refNo, @Param("since") LocalDateTime since);
 
+	/**
+	 * Method to get the reference number and date of the audits of some
+	 * reference numbers in {@code service_audit.audit} table
+	 * 
+	 * @param refNos Reference numbers
+	 * @return Pairs of reference number and date
+	 */
+	@Transactional(readOnly = true)
+	@Query("select a.refNo, a.date from Audit a where a.refNo in :refNos")
+	List<Object[]> findRefNoAndDateByRefNoIn(@Param("refNos") Collection<String> refNos);
+
+	/**
+	 * Method to get the highest audit id present in {@code service_audit.audit}
+	 * table
+	 * 
+	 * @return Highest audit id or {@code 0} when the table is empty
+	 */
+	@Query("select coalesce(max(a.id), 0) from Audit a")
+	int maxId();
+
 }
@@ -1,10 +1,17 @@
 package com.audit.repo;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.audit.projections.UserSummary;
 import com.model.entity.Users;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 
 /**
@@ -45,6 +52,10 @@ import jakarta.transaction.Transactional;
  * database</li>
  * <li>{@code #findById(String)} - fetches the user entity for a particular
  * primary key from the database</li>
+ * <li>{@link #findByUserNameGreaterThanOrderByUserNameAsc(String, Limit)} -
+ * fetches a keyset page of user projections</li>
+ * <li>{@link #streamAllByOrderByUserNameAsc()} - streams user projections from
+ * a data base cursor</li>
  * </ul>
  *
  * 
@@ -64,4 +75,22 @@ import jakarta.transaction.Transactional;
 @Transactional
 public interface UserDetailsRepo extends JpaRepository<Users, String> {
 
+	/**
+	 * Method to get a keyset page of users ordered by user name
+	 * 
+	 * @param after User name after which the page starts
+	 * @param limit Maximum number of users in the page
+	 * @return List of {@link UserSummary} projections
+	 */
+	List<UserSummary> findByUserNameGreaterThanOrderByUserNameAsc(String after, Limit limit);
+
+	/**
+	 * Method to stream all users ordered by user name from a data base cursor.
+	 * The stream must be consumed and closed within a transaction.
+	 * 
+	 * @return Stream of {@link UserSummary} projections
+	 */
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	Stream<UserSummary> streamAllByOrderByUserNameAsc();
+
 }
@@ -3,6 +3,8 @@ package com.audit.services;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.audit.utility.HeavyHitterSketch.HeavyHitter;
+import com.model.entity.Audit;
 import com.model.projections.AuditProjection;
 
 /**
@@ -40,4 +42,29 @@ public interface AuditService {
 	 * @return Count of reference number present in the data base
 	 */
 	int refNoCount(String refNo, LocalDateTime pastTime);
+
+	/**
+	 * Declaration of {@code auditLogsVersion} to get the version tag of the audit
+	 * logs, derived from the highest audit id known to the service
+	 * 
+	 * @return Entity tag representing the current state of the audit logs
+	 */
+	String auditLogsVersion();
+
+	/**
+	 * Declaration of {@code auditIngested} to notify the service that an audit has
+	 * been persisted by the ingest path
+	 * 
+	 * @param audit Persisted {@link Audit} entity
+	 */
+	void auditIngested(Audit audit);
+
+	/**
+	 * Declaration of {@code heavyHitters} to get the reference numbers ingested
+	 * most often over the recent window
+	 * 
+	 * @param k Number of reference numbers to return
+	 * @return Approximate counts with their error bounds, by descending count
+	 */
+	List<HeavyHitter> heavyHitters(int k);
 }
@@ -0,0 +1,62 @@
+package com.audit.services;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import com.model.entity.Audit;
+
+/**
+ * This Interface defines the contract for {@code ChannelService} service. The
+ * service keeps an in-memory registry of the channels registered in the data
+ * base and enforces per-channel ingest quotas.
+ *
+ * <p>
+ * The channel of an audit is the {@value #CHANNEL_HEADER} header of the KAFKA
+ * record when the producer sets it, and otherwise the channel property of the
+ * decoded audit named by {@code config.kafka.channel-quota.field}. Audits over
+ * their channel quota are diverted to a low-priority topic so that one noisy
+ * channel cannot starve the data base writes of the others. Channels not
+ * registered in the system get the default quota.
+ * </p>
+ *
+ *
+ * @author Kabir Akware
+ */
+public interface ChannelService {
+
+	/**
+	 * Optional KAFKA record header carrying the channel id of an audit, taking
+	 * precedence over the channel property of the audit
+	 */
+	String CHANNEL_HEADER = "channel-id";
+
+	/**
+	 * Declaration of {@code channelOf} to resolve the channel id of a record
+	 *
+	 * @param record KAFKA {@link ConsumerRecord}
+	 * @param audit  {@link Audit} decoded from the record
+	 * @return Channel id, or {@code null} when the record carries none
+	 */
+	String channelOf(ConsumerRecord<String, String> record, Audit audit);
+
+	/**
+	 * Declaration of {@code admit} to check whether an audit of the channel may
+	 * be written on the regular ingest path
+	 *
+	 * @param channelId Channel id, {@code null} for audits without a channel
+	 * @return {@code true} if the audit is within its channel quota
+	 */
+	boolean admit(String channelId);
+
+	/**
+	 * Declaration of {@code divert} to forward a record to the low-priority
+	 * ingest path without waiting for the broker
+	 *
+	 * @param record KAFKA {@link ConsumerRecord} to forward
+	 * @return {@link CompletableFuture} completed once the broker has
+	 *         acknowledged the forwarded record, or completed exceptionally when
+	 *         it could not be forwarded
+	 */
+	CompletableFuture<Void> divert(ConsumerRecord<String, String> record);
+}
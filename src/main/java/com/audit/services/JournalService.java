@@ -0,0 +1,49 @@
+package com.audit.services;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.model.entity.Audit;
+
+/**
+ * This Interface defines the contract for {@code JournalService} service. The
+ * service persists the audits of the ingest path and keeps the consumers
+ * running while the data base is degraded.
+ *
+ * <p>
+ * Audits are written to the data base while it is healthy. When a write fails
+ * because the data base is unavailable, or exceeds the latency budget, the
+ * audits are spilled to a durable local journal instead, so their offsets can
+ * be committed, and are drained into the data base once it recovers.
+ * </p>
+ *
+ * <p>
+ * A spilled audit is durable once the journal's group commit has synced it, so
+ * {@code persist} returns a future rather than waiting; the consumer
+ * acknowledges the record when it completes, and one {@code fsync} covers the
+ * records of a whole poll.
+ * </p>
+ *
+ *
+ * @author Kabir Akware
+ */
+public interface JournalService {
+
+	/**
+	 * Declaration of {@code persist} to store an audit durably, in the data base
+	 * or in the local journal
+	 *
+	 * @param audit Decoded {@link Audit} entity
+	 * @return Future completed once the audit is durable, or completed
+	 *         exceptionally if the journal could not sync it
+	 * @throws Exception Thrown when the audit could be stored in neither
+	 */
+	CompletableFuture<Void> persist(Audit audit) throws Exception;
+
+	/**
+	 * Declaration of {@code journaled} to get the number of audits waiting in the
+	 * local journal
+	 *
+	 * @return Audits waiting to be drained into the data base
+	 */
+	long journaled();
+}
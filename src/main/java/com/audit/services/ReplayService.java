@@ -0,0 +1,41 @@
+package com.audit.services;
+
+/**
+ * This Interface defines the contract for {@code ReplayService} service. The
+ * service re-ingests a range of {@code audit-topic} into the data base, e.g.
+ * after a data base restore, without disturbing the live consumers.
+ *
+ * <p>
+ * The replay uses its own consumer group, seeks to the start of the range
+ * given by offset or time stamp, writes the audits in large batches and stops
+ * at the end of the range. Its progress is committed with the offsets, so a
+ * replay interrupted by a crash resumes where it stopped on the next start.
+ * </p>
+ *
+ *
+ * @author Kabir Akware
+ */
+public interface ReplayService {
+
+	/**
+	 * Declaration of {@code replay} to re-ingest the configured range, returning
+	 * once the end of the range is reached on every partition
+	 */
+	void replay();
+
+	/**
+	 * Declaration of {@code replayed} to get the number of audits written by the
+	 * replay
+	 *
+	 * @return Audits written since the replay started
+	 */
+	long replayed();
+
+	/**
+	 * Declaration of {@code remaining} to get the number of records left in the
+	 * range
+	 *
+	 * @return Records between the current positions and the end of the range
+	 */
+	long remaining();
+}
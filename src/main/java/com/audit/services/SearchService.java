@@ -0,0 +1,29 @@
+package com.audit.services;
+
+import java.util.List;
+
+import com.audit.exception.AppException;
+import com.model.projections.AuditProjection;
+
+/**
+ * This Interface defines the contract for {@code SearchService} service. The
+ * service finds audits by the values of their fields, including the request
+ * and response bodies, through a full-text index kept off the ingest path.
+ *
+ *
+ * @author Kabir Akware
+ */
+public interface SearchService {
+
+	/**
+	 * Declaration of {@code search} to find the audits matching a full-text
+	 * query
+	 *
+	 * @param query Lucene query over the fields of the audits
+	 * @param limit Maximum number of audits to return
+	 * @return Matching audits, newest first
+	 * @throws AppException Thrown when the query is invalid or the index cannot
+	 *                      be read
+	 */
+	List<AuditProjection> search(String query, int limit) throws AppException;
+}
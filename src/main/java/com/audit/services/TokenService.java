@@ -0,0 +1,62 @@
+package com.audit.services;
+
+import java.util.Optional;
+
+import org.springframework.security.core.Authentication;
+
+/**
+ * This Interface defines the contract for {@code TokenService} service. The
+ * service issues short-lived signed bearer tokens to clients that already
+ * authenticated with their credentials, and validates them on subsequent
+ * requests to any instance sharing the signing key.
+ *
+ * <p>
+ * Validating a token neither verifies a password nor reads the data base, which
+ * makes it the preferred authentication for high-frequency API clients.
+ * </p>
+ *
+ *
+ * @author Kabir Akware
+ */
+public interface TokenService {
+
+	/**
+	 * Declaration of {@code issue} to issue a bearer token for an authenticated
+	 * user
+	 *
+	 * @param authentication Verified {@link Authentication} of the user
+	 * @return Signed bearer token
+	 */
+	String issue(Authentication authentication);
+
+	/**
+	 * Declaration of {@code authenticate} to resolve a bearer token
+	 *
+	 * @param token Signed bearer token
+	 * @return {@link Authentication} the token was issued for, or empty when the
+	 *         token is unknown, expired or revoked
+	 */
+	Optional<Authentication> authenticate(String token);
+
+	/**
+	 * Declaration of {@code revoke} to revoke a bearer token on every instance
+	 *
+	 * @param token Signed bearer token
+	 */
+	void revoke(String token);
+
+	/**
+	 * Declaration of {@code revokeAll} to revoke every bearer token of a user
+	 * issued so far, on every instance
+	 *
+	 * @param username User name
+	 */
+	void revokeAll(String username);
+
+	/**
+	 * Declaration of {@code ttlSeconds} to get the validity of issued tokens
+	 *
+	 * @return Time in seconds for which an issued token is valid
+	 */
+	long ttlSeconds();
+}
@@ -1,12 +1,13 @@
 package com.audit.services;
 
+import java.io.OutputStream;
 import java.util.List;
 
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import com.audit.exception.AppException;
+import com.audit.projections.UserSummary;
 import com.model.dto.UserDto;
-import com.model.entity.Users;
 
 /**
  * This Interface defines the contract for {@code UserDetailService} service.
@@ -50,11 +51,23 @@ public interface UserDetailService extends UserDetailsService {
 	UserDto register(UserDto user) throws AppException;
 
 	/**
-	 * Declaration of {@code register} to get all users in the system
+	 * Declaration of {@code getUsers} to get a keyset page of users in the system
 	 * 
-	 * @return {@link UserDto} with user details given by the user
-	 * @throws AppException 
+	 * @param after User name after which the page starts, {@code null} for the
+	 *              first page
+	 * @param limit Maximum number of users in the page
+	 * @return List of {@link UserSummary} ordered by user name
+	 * @throws AppException Thrown when a custom exception occurs
+	 */
+	List<UserSummary> getUsers(String after, int limit) throws AppException;
+
+	/**
+	 * Declaration of {@code streamUsers} to write all users in the system as a
+	 * JSON array, row by row
+	 * 
+	 * @param out {@link OutputStream} the JSON array is written to
+	 * @throws AppException Thrown when a custom exception occurs
 	 */
-	List<Users> getUsers() throws AppException;
+	void streamUsers(OutputStream out) throws AppException;
 
 }
@@ -1,13 +1,21 @@
 package com.audit.services.impl;
 
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.stereotype.Service;
 
-import com.audit.repo.AuditRepo;
-import com.google.gson.Gson;
+import com.audit.services.ChannelService;
+import com.audit.services.JournalService;
+import com.audit.utility.AuditDecoder;
+import com.audit.utility.HeavyHitterSketch;
 import com.model.entity.Audit;
 import com.utilities.log.Log;
 
@@ -17,11 +25,19 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class AuditKafkaServiceImpl {
 
-	private AuditRepo auditRepo;
+	private ChannelService channelService;
+
+	private JournalService journalService;
+
+	private HeavyHitterSketch heavyHitters;
 
-	private Gson g;
+	private AuditDecoder decoder;
 
-	@KafkaListener(topics = "log-topic", groupId = "my-consumer-group")
+	private KafkaListenerEndpointRegistry registry;
+
+	@KafkaListener(id = "logs", topics = "log-topic",
+			groupId = "${config.kafka.listener.logs.group-id:log-consumer-group}",
+			containerFactory = "logListenerContainerFactory")
 	public void consumeLogs(ConsumerRecord<String, String> record, Acknowledgment ack) {
 		try {
 			Log.info(this.getClass().getSimpleName(), "startConsuming",
@@ -37,22 +53,70 @@ public class AuditKafkaServiceImpl {
 		}
 	}
 
-	@KafkaListener(topics = "audit-topic", groupId = "my-consumer-group")
-	public void consumeAudit(ConsumerRecord<String, String> record, Acknowledgment ack) {
+	@KafkaListener(id = "audit", topics = "audit-topic", groupId = "my-consumer-group")
+	public void consumeAudit(ConsumerRecord<String, String> record, Acknowledgment ack) throws Exception {
 		try {
 			Log.info(this.getClass().getSimpleName(), "startConsuming",
 					"Received message: key=%s, value=%s, partition=%s, offset=%s", record.key(), record.value(),
 					record.partition(), record.offset());
 
-			auditRepo.save(g.fromJson(record.value(), Audit.class));
-
-			ack.acknowledge();
+			Audit audit = decoder.decode(record.value());
+			acknowledgeWhenStored(record, ack,
+					channelService.admit(channelService.channelOf(record, audit)) ? persist(record, audit)
+							: channelService.divert(record));
 		} catch (Exception e) {
 			Log.error(this.getClass().getSimpleName(), "startConsuming", "Error processing message: %s,%n%s",
 					record.value(), ExceptionUtils.getStackTrace(e));
+			throw e;
+		}
+	}
+
+	@KafkaListener(id = "audit-low-priority",
+			topics = "${config.kafka.audit-low-priority-topic:audit-low-priority-topic}",
+			groupId = "my-consumer-group", concurrency = "1")
+	public void consumeLowPriorityAudit(ConsumerRecord<String, String> record, Acknowledgment ack)
+			throws Exception {
+		try {
+			Log.info(this.getClass().getSimpleName(), "consumeLowPriorityAudit",
+					"Received message: key=%s, value=%s, partition=%s, offset=%s", record.key(), record.value(),
+					record.partition(), record.offset());
+
+			acknowledgeWhenStored(record, ack, persist(record, decoder.decode(record.value())));
+		} catch (Exception e) {
+			Log.error(this.getClass().getSimpleName(), "consumeLowPriorityAudit", "Error processing message: %s,%n%s",
+					record.value(), ExceptionUtils.getStackTrace(e));
+			throw e;
 		}
 	}
 
+	private CompletableFuture<Void> persist(ConsumerRecord<String, String> record, Audit audit) throws Exception {
+		// Retried records were counted on their first delivery
+		if (Objects.isNull(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC)))
+			heavyHitters.offer(audit.getRefNo());
+		return journalService.persist(audit);
+	}
+
+	// The audit lane uses async acks, so the offsets of a poll are committed once all its records are stored or diverted
+	private void acknowledgeWhenStored(ConsumerRecord<String, String> record, Acknowledgment ack,
+			CompletableFuture<Void> stored) {
+		stored.whenComplete((done, e) -> {
+			if (Objects.isNull(e)) {
+				ack.acknowledge();
+				return;
+			}
+
+			// The record is never acknowledged; restarting its container redelivers it from the committed offset
+			Log.error(this.getClass().getSimpleName(), "acknowledgeWhenStored",
+					"Error storing message, restarting its listener: %s,%n%s", record.value(),
+					ExceptionUtils.getStackTrace(e));
+			TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+			registry.getListenerContainers().stream()
+					.filter(container -> container.isRunning() && Objects.nonNull(container.getAssignedPartitions())
+							&& container.getAssignedPartitions().contains(partition))
+					.forEach(container -> container.stop(container::start));
+		});
+	}
+
 	private void processMessage(String message) {
 		
 		Log.info(this.getClass().getSimpleName(), "processMessage", "Processing message: %s", message);
@@ -2,14 +2,26 @@ package com.audit.services.impl;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.audit.config.ReplicaRoutingDataSource;
+import com.audit.projections.RecentAudit;
 import com.audit.repo.AuditRepo;
 import com.audit.services.AuditService;
+import com.audit.utility.HeavyHitterSketch;
+import com.audit.utility.HeavyHitterSketch.HeavyHitter;
+import com.audit.utility.ReadYourWrites;
+import com.audit.utility.RecentAuditBuffer;
+import com.model.entity.Audit;
 import com.model.projections.AuditProjection;
+import com.utilities.log.Log;
 
 import lombok.AllArgsConstructor;
 
@@ -54,22 +66,112 @@ public class AuditServiceImpl implements AuditService {
 	 */
 	private AuditRepo auditRepo;
 
+	/**
+	 * {@link ReadYourWrites} tracker of recently ingested reference numbers
+	 */
+	private ReadYourWrites readYourWrites;
+
+	/**
+	 * {@link RecentAuditBuffer} holding the most recently ingested audits
+	 */
+	private RecentAuditBuffer recentAudits;
+
+	/**
+	 * {@link HeavyHitterSketch} of the reference numbers seen by the ingest path
+	 */
+	private HeavyHitterSketch heavyHitters;
+
+	/**
+	 * Highest audit id known to the service, advanced by the ingest path and
+	 * periodically synchronized with the data base
+	 */
+	private final AtomicLong latestAuditId = new AtomicLong();
 
 	/**
 	 * Method implementing the logic to return all the audit logs stored in the data
-	 * base using custom method
+	 * base using custom method. Pages within the most recent audits are served
+	 * from memory; the remaining pages are queried from the replica data base when
+	 * one is configured.
 	 */
 	@Override
 	public List<AuditProjection> getAuditLogs(Integer page, Integer limit) {
-		return auditRepo.findAllByOrderByIdDesc(PageRequest.of(page, limit)).getContent();
+		return recentAudits.page(page, limit, latestAuditId.get())
+				.orElseGet(() -> auditRepo.findAllByOrderByIdDesc(PageRequest.of(page, limit)).getContent());
 	}
 
 	/**
 	 * Method implementing the logic to fetch the count of reference number present
-	 * in the data base
+	 * in the data base. The query is served by the replica data base unless the
+	 * reference number was ingested recently, in which case it is pinned to the
+	 * primary data base to read its own writes.
 	 */
 	@Override
 	public int refNoCount(String refNo, LocalDateTime pastTime) {
+		if (readYourWrites.recentlyWritten(refNo))
+			return ReplicaRoutingDataSource.onPrimary(() -> auditRepo.refNoCount(refNo, pastTime));
 		return auditRepo.refNoCount(refNo, pastTime);
 	}
+
+	/**
+	 * Method implementing the logic to derive a weak entity tag for the audit logs
+	 * from the highest audit id held in memory, without querying the data base
+	 */
+	@Override
+	public String auditLogsVersion() {
+		return "W/\"" + latestAuditId.get() + "\"";
+	}
+
+	/**
+	 * Method implementing the logic to advance the highest known audit id after
+	 * an audit is persisted by the ingest path
+	 */
+	@Override
+	public void auditIngested(Audit audit) {
+		readYourWrites.written(audit.getRefNo());
+		recentAudits.add(audit);
+		if (Objects.nonNull(audit.getId()))
+			latestAuditId.accumulateAndGet(audit.getId(), Math::max);
+	}
+
+	/**
+	 * Method implementing the logic to get the approximate top-K reference numbers
+	 * of the sliding window from memory, without querying the data base
+	 */
+	@Override
+	public List<HeavyHitter> heavyHitters(int k) {
+		return heavyHitters.top(k);
+	}
+
+	/**
+	 * Method to synchronize the highest known audit id and the recent audit buffer
+	 * with the data base.
+	 * 
+	 * <p>
+	 * This seeds both at start up and picks up audits persisted by other consumer
+	 * instances, which never pass through this instance's ingest path. After the
+	 * initial seed, only the {@link RecentAudit} projections above the last
+	 * synchronized id are read; a backlog larger than the buffer seeds it again
+	 * from the most recent audits. The buffer serves no page with a gap above the
+	 * last synchronized id in between.
+	 * </p>
+	 */
+	@Scheduled(fixedDelayString = "${config.audit.version-refresh-ms:5000}")
+	public void refreshAuditLogsVersion() {
+		try {
+			int maxId = auditRepo.maxId();
+			PageRequest window = PageRequest.of(0, Math.max(recentAudits.capacity(), 1));
+			List<RecentAudit> tail = null;
+			if (recentAudits.isSeeded() && maxId > recentAudits.syncedId())
+				tail = auditRepo.findByIdGreaterThanOrderByIdAsc((int) recentAudits.syncedId(), window,
+						RecentAudit.class);
+			if (!recentAudits.isSeeded() || (Objects.nonNull(tail) && tail.size() >= window.getPageSize()))
+				recentAudits.sync(auditRepo.findByOrderByIdDesc(window, RecentAudit.class), maxId);
+			else if (Objects.nonNull(tail))
+				recentAudits.sync(tail, maxId);
+			latestAuditId.accumulateAndGet(maxId, Math::max);
+		} catch (Exception e) {
+			Log.error(this.getClass().getSimpleName(), "refreshAuditLogsVersion",
+					"Error refreshing audit logs version: %s", ExceptionUtils.getStackTrace(e));
+		}
+	}
 }
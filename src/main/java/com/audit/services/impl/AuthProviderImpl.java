@@ -2,11 +2,13 @@ package com.audit.services.impl;
 
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.audit.services.AuthProvider;
 import com.audit.services.UserDetailService;
+import com.audit.utility.CredentialCache;
 import com.utilities.property.AppProperties;
 
 import lombok.AllArgsConstructor;
@@ -33,6 +35,11 @@ import lombok.AllArgsConstructor;
  * </ul>
  * 
  * <p>
+ * The provider is fronted by a {@link CredentialCache}, so the BCrypt
+ * verification is only performed for credentials not verified recently.
+ * </p>
+ * 
+ * <p>
  * This implementation ensures adherence to Spring Security's best practices for
  * handling user authentication, including secure password management.
  * </p>
@@ -57,16 +64,33 @@ public class AuthProviderImpl implements AuthProvider {
 	 */
 	private UserDetailService encryptionUserDetailsService;
 
+	/**
+	 * {@link CredentialCache} of recently verified credentials
+	 */
+	private CredentialCache credentialCache;
+
 	/**
 	 * Method to provide implementation for a custom encryption logic to encode and
 	 * decode passwords using {@code DaoAuthenticationProvider} implementing the
-	 * logic to fetch user data from data base for authentication
+	 * logic to fetch user data from data base for authentication. Credentials
+	 * found in the {@link CredentialCache} skip the BCrypt verification.
 	 */
 	@Override
 	public AuthenticationProvider authenticationProvider() {
 		DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encryptionUserDetailsService);
 		provider.setPasswordEncoder(new BCryptPasswordEncoder(AppProperties.intProperty("bcrypt.strength")));
-		return provider;
+		return new AuthenticationProvider() {
+
+			@Override
+			public Authentication authenticate(Authentication authentication) {
+				return credentialCache.authenticate(authentication, provider);
+			}
+
+			@Override
+			public boolean supports(Class<?> authentication) {
+				return provider.supports(authentication);
+			}
+		};
 	}
 
 }
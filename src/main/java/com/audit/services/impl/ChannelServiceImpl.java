@@ -0,0 +1,250 @@
+package com.audit.services.impl;
+
+import java.beans.PropertyDescriptor;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.audit.repo.ChannelDetailsRepo;
+import com.audit.services.ChannelService;
+import com.audit.utility.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.model.entity.Audit;
+import com.utilities.log.Log;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+
+/**
+ * This class provides the implementation of {@link ChannelService} interface.
+ *
+ * <p>
+ * The ids of the registered channels are loaded from {@link ChannelDetailsRepo}
+ * into an immutable snapshot when the service is created, and the snapshot is
+ * replaced every {@code config.kafka.channel-quota.refresh-ms}, so looking a
+ * channel up never touches the data base. Each channel gets its own lock-free
+ * {@link TokenBucket}, sized by {@code config.kafka.channel-quota.rate} and
+ * {@code config.kafka.channel-quota.burst}, or by a per-channel override for a
+ * registered channel. A channel missing from the snapshot, because it was
+ * registered after the last refresh or the registry could not be read, gets
+ * the default quota rather than being diverted.
+ * </p>
+ *
+ * <p>
+ * The channel of a record is its {@value ChannelService#CHANNEL_HEADER}
+ * header, or else the {@link Audit} property named by
+ * {@code config.kafka.channel-quota.field}. A property that is not a String
+ * property with a getter is logged at start up, and only the header is used.
+ * </p>
+ *
+ * <p>
+ * A bucket is dropped once its channel has been idle for
+ * {@code config.kafka.channel-quota.idle-ms}. An idle bucket refills at the
+ * sustained rate, so once the idle time exceeds {@code burst / rate} seconds
+ * the dropped bucket was full anyway and its replacement grants no extra
+ * burst. A refresh only drops the buckets of channels whose registration
+ * changed the rate they are entitled to.
+ * </p>
+ *
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/stereotype/Service.html">
+ *      Service </a>
+ * @author Kabir Akware
+ */
+@Service
+public class ChannelServiceImpl implements ChannelService {
+
+	/**
+	 * {@link ChannelDetailsRepo} repository object
+	 */
+	private final ChannelDetailsRepo channelDetailsRepo;
+
+	/**
+	 * {@link PersistenceUnitUtil} used to read the id of channel entities
+	 */
+	private final PersistenceUnitUtil persistenceUnitUtil;
+
+	/**
+	 * {@link KafkaProducer} used to divert records to the low-priority topic
+	 */
+	private final KafkaProducer<String, String> producer;
+
+	/**
+	 * Low-priority topic the over-quota records are diverted to
+	 */
+	private final String lowPriorityTopic;
+
+	/**
+	 * Default sustained ingest rate of a channel in records per second
+	 */
+	private final double rate;
+
+	/**
+	 * Default ingest burst of a channel in records
+	 */
+	private final long burst;
+
+	/**
+	 * Per-channel sustained ingest rates overriding the default
+	 */
+	private final Map<String, Double> overrides;
+
+	/**
+	 * Token buckets of the recently active channels
+	 */
+	private final Cache<String, TokenBucket> buckets;
+
+	/**
+	 * Getter of the channel property of {@link Audit}, {@code null} when the
+	 * channel is only read from the header
+	 */
+	private final PropertyDescriptor channelProperty;
+
+	/**
+	 * Snapshot of the registered channel ids
+	 */
+	private volatile Set<String> channels = Set.of();
+
+	/**
+	 * Constructor to create the channel registry with the configured quotas
+	 *
+	 * @param channelDetailsRepo   {@link ChannelDetailsRepo} repository object
+	 * @param entityManagerFactory {@link EntityManagerFactory} of the channel
+	 *                             entities
+	 * @param producer             {@link KafkaProducer} used to divert records
+	 * @param lowPriorityTopic     Low-priority topic for over-quota records
+	 * @param rate                 Default records per second of a channel
+	 * @param burst                Default burst of a channel
+	 * @param overrides            Per-channel rates as
+	 *                             {@code channel=rate,channel=rate}
+	 * @param channelField         {@link Audit} property holding the channel id
+	 * @param idleMs               Time in milliseconds after which the bucket of
+	 *                             an idle channel is dropped
+	 */
+	public ChannelServiceImpl(ChannelDetailsRepo channelDetailsRepo, EntityManagerFactory entityManagerFactory,
+			KafkaProducer<String, String> producer,
+			@Value("${config.kafka.audit-low-priority-topic:audit-low-priority-topic}") String lowPriorityTopic,
+			@Value("${config.kafka.channel-quota.rate:500}") double rate,
+			@Value("${config.kafka.channel-quota.burst:1000}") long burst,
+			@Value("${config.kafka.channel-quota.overrides:}") String overrides,
+			@Value("${config.kafka.channel-quota.field:channelId}") String channelField,
+			@Value("${config.kafka.channel-quota.idle-ms:600000}") long idleMs) {
+		this.channelDetailsRepo = channelDetailsRepo;
+		this.persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+		this.producer = producer;
+		this.lowPriorityTopic = lowPriorityTopic;
+		this.rate = rate;
+		this.burst = burst;
+		this.overrides = Arrays.stream(overrides.split(",")).map(String::trim).filter(o -> o.contains("="))
+				.map(o -> o.split("=", 2))
+				.collect(Collectors.toUnmodifiableMap(o -> o[0].trim(), o -> Double.valueOf(o[1].trim())));
+		this.buckets = Caffeine.newBuilder().expireAfterAccess(Duration.ofMillis(idleMs)).build();
+
+		PropertyDescriptor property = channelField.isBlank() ? null
+				: BeanUtils.getPropertyDescriptor(Audit.class, channelField.strip());
+		if (Objects.nonNull(property)
+				&& (property.getPropertyType() != String.class || Objects.isNull(property.getReadMethod())))
+			property = null;
+		if (Objects.isNull(property) && !channelField.isBlank())
+			Log.error(this.getClass().getSimpleName(), "ChannelServiceImpl",
+					"config.kafka.channel-quota.field: %s is not a String property of %s, "
+							+ "channels are only read from the %s header",
+					channelField.strip(), Audit.class.getName(), CHANNEL_HEADER);
+		this.channelProperty = property;
+		refreshChannels();
+	}
+
+	/**
+	 * Method implementing the logic to read the channel id from the
+	 * {@value ChannelService#CHANNEL_HEADER} header of the record, or else from
+	 * the channel property of the audit
+	 */
+	@Override
+	public String channelOf(ConsumerRecord<String, String> record, Audit audit) {
+		Header header = record.headers().lastHeader(CHANNEL_HEADER);
+		if (Objects.nonNull(header) && Objects.nonNull(header.value()))
+			return new String(header.value(), StandardCharsets.UTF_8);
+		if (Objects.isNull(channelProperty) || Objects.isNull(audit))
+			return null;
+		try {
+			return (String) channelProperty.getReadMethod().invoke(audit);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Method implementing the logic to admit audits without a channel, and audits
+	 * of channels within their quota
+	 */
+	@Override
+	public boolean admit(String channelId) {
+		if (Objects.isNull(channelId))
+			return true;
+		return buckets.get(channelId, id -> new TokenBucket(rateOf(id, channels), burst)).tryAcquire();
+	}
+
+	/**
+	 * Method implementing the logic to republish the record, with its key and
+	 * headers, to the low-priority topic, completing the future from the
+	 * producer callback so the consumer thread never waits for the broker
+	 */
+	@Override
+	public CompletableFuture<Void> divert(ConsumerRecord<String, String> record) {
+		CompletableFuture<Void> sent = new CompletableFuture<>();
+		producer.send(new ProducerRecord<>(lowPriorityTopic, null, record.key(), record.value(), record.headers()),
+				(metadata, e) -> {
+					if (Objects.isNull(e))
+						sent.complete(null);
+					else
+						sent.completeExceptionally(e);
+				});
+		return sent;
+	}
+
+	/**
+	 * Method to reload the registered channel ids from the data base and drop the
+	 * buckets of the channels whose rate changed with their registration, so a
+	 * channel picks up its override once it is registered
+	 */
+	@Scheduled(fixedDelayString = "${config.kafka.channel-quota.refresh-ms:60000}")
+	public void refreshChannels() {
+		try {
+			Set<String> previous = channels;
+			channels = channelDetailsRepo.findAll().stream().map(persistenceUnitUtil::getIdentifier)
+					.map(String::valueOf).collect(Collectors.toUnmodifiableSet());
+			buckets.asMap().keySet().removeIf(id -> rateOf(id, previous) != rateOf(id, channels));
+		} catch (Exception e) {
+			Log.error(this.getClass().getSimpleName(), "refreshChannels", "Error refreshing channel registry: %s",
+					ExceptionUtils.getStackTrace(e));
+		}
+	}
+
+	/**
+	 * Method to get the sustained rate of a channel
+	 *
+	 * @param channelId  Channel id
+	 * @param registered Snapshot of the registered channel ids
+	 * @return Override of a registered channel, or the default rate
+	 */
+	private double rateOf(String channelId, Set<String> registered) {
+		return registered.contains(channelId) ? overrides.getOrDefault(channelId, rate) : rate;
+	}
+}
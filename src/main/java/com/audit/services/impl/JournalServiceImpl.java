@@ -0,0 +1,416 @@
+package com.audit.services.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.audit.config.ReplicaRoutingDataSource;
+import com.audit.repo.AuditRepo;
+import com.audit.services.AuditService;
+import com.audit.services.JournalService;
+import com.audit.utility.AuditJournal;
+import com.google.gson.Gson;
+import com.model.entity.Audit;
+import com.utilities.exceptions.ConfigException;
+import com.utilities.log.Log;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class provides the implementation of {@link JournalService} interface.
+ *
+ * <p>
+ * An audit is spilled to the {@link AuditJournal} instead of the data base
+ * when:
+ * </p>
+ * <ul>
+ * <li>its write fails because the data base is unavailable, i.e. a
+ * connection, transaction or transient data access failure; this also opens a
+ * degraded window of {@code config.journal.probe-interval-ms}</li>
+ * <li>a write took longer than {@code config.journal.latency-budget-ms}, which
+ * opens the same degraded window for the following audits</li>
+ * <li>the data base is in a degraded window</li>
+ * <li>an earlier audit with the same reference number is still in the journal,
+ * so the audits of a reference number reach the data base in order</li>
+ * </ul>
+ *
+ * <p>
+ * Every {@code config.journal.drain-interval-ms} outside a degraded window, the
+ * journal is drained into the data base in batches of
+ * {@code config.journal.drain-batch-size} on the ingest connection pool. The
+ * drain runs on its own thread, so a long backlog never holds up the
+ * {@code @Scheduled} tasks of the service. A
+ * batch that fails for a reason other than the data base being unavailable is
+ * retried one audit at a time, decoded again from the journal, and the audits
+ * the data base rejects are logged and dropped, so a single bad entry cannot
+ * stall the drain. When the data base becomes unavailable during a batch, only
+ * the audits stored before the failure are removed from the journal and a
+ * degraded window is opened. Delivery is at least once: a write that failed
+ * after its commit, or a crash between a batch and its acknowledgement, writes
+ * the audit twice.
+ * </p>
+ *
+ * <p>
+ * The number of audits in the journal is published as the
+ * {@code audit.journal.pending} gauge.
+ * </p>
+ *
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/stereotype/Service.html">
+ *      Service </a>
+ * @author Kabir Akware
+ */
+@Service
+public class JournalServiceImpl implements JournalService {
+
+	/**
+	 * {@link AuditRepo} repository object
+	 */
+	private final AuditRepo auditRepo;
+
+	/**
+	 * {@link AuditService} notified of the persisted audits
+	 */
+	private final AuditService auditService;
+
+	/**
+	 * {@link AuditJournal} the audits are spilled to
+	 */
+	private final AuditJournal journal;
+
+	/**
+	 * {@link Gson} object to encode the journal entries
+	 */
+	private final Gson g;
+
+	/**
+	 * Longest write in nanoseconds before the data base is considered degraded
+	 */
+	private final long latencyBudget;
+
+	/**
+	 * Length of a degraded window in nanoseconds
+	 */
+	private final long probeInterval;
+
+	/**
+	 * Number of audits drained per transaction
+	 */
+	private final int drainBatchSize;
+
+	/**
+	 * Milliseconds between the end of a drain and the start of the next
+	 */
+	private final long drainIntervalMs;
+
+	/**
+	 * Thread draining the journal into the data base
+	 */
+	private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(task -> {
+		Thread thread = new Thread(task, "audit-journal-drainer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Number of journaled audits by reference number
+	 */
+	private final Map<String, Integer> journaledRefNos = new ConcurrentHashMap<>();
+
+	/**
+	 * {@link System#nanoTime()} at which the degraded window ends
+	 */
+	private volatile long degradedUntil = System.nanoTime();
+
+	/**
+	 * Constructor to create the service and index the audits left in the journal
+	 *
+	 * @param auditRepo        {@link AuditRepo} repository object
+	 * @param auditService     {@link AuditService} notified of the persisted
+	 *                         audits
+	 * @param journal          {@link AuditJournal} the audits are spilled to
+	 * @param g                {@link Gson} object to encode the journal entries
+	 * @param registry         {@link MeterRegistry} publishing the journal gauge
+	 * @param latencyBudgetMs  Longest write in milliseconds before the data base
+	 *                         is considered degraded
+	 * @param probeIntervalMs  Length of a degraded window in milliseconds
+	 * @param drainBatchSize   Number of audits drained per transaction
+	 * @param drainIntervalMs  Milliseconds between the end of a drain and the
+	 *                         start of the next
+	 */
+	public JournalServiceImpl(AuditRepo auditRepo, AuditService auditService, AuditJournal journal, Gson g,
+			MeterRegistry registry, @Value("${config.journal.latency-budget-ms:1000}") long latencyBudgetMs,
+			@Value("${config.journal.probe-interval-ms:5000}") long probeIntervalMs,
+			@Value("${config.journal.drain-batch-size:500}") int drainBatchSize,
+			@Value("${config.journal.drain-interval-ms:1000}") long drainIntervalMs) {
+		this.auditRepo = auditRepo;
+		this.auditService = auditService;
+		this.journal = journal;
+		this.g = g;
+		this.latencyBudget = TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs);
+		this.probeInterval = TimeUnit.MILLISECONDS.toNanos(probeIntervalMs);
+		this.drainBatchSize = Math.max(1, drainBatchSize);
+		this.drainIntervalMs = Math.max(1, drainIntervalMs);
+
+		try {
+			journal.scan(entry -> journaledRefNos.merge(key(g.fromJson(entry, Audit.class)), 1, Integer::sum));
+		} catch (IOException e) {
+			throw ConfigException.getInstance("Exception occurred while reading audit journal: " + e.getMessage());
+		}
+		Gauge.builder("audit.journal.pending", journal, AuditJournal::pending).register(registry);
+	}
+
+	/**
+	 * Method implementing the logic to store an audit in the data base, or in the
+	 * journal while the data base is degraded
+	 */
+	@Override
+	public CompletableFuture<Void> persist(Audit audit) throws Exception {
+		if (degraded() || journaledRefNos.containsKey(key(audit)))
+			return spill(audit);
+
+		long start = System.nanoTime();
+		Audit saved;
+		try {
+			saved = auditRepo.save(audit);
+		} catch (Exception e) {
+			if (!unavailable(e))
+				throw e;
+			degrade("write failed: " + e.getMessage());
+			return spill(audit);
+		}
+
+		long elapsed = System.nanoTime() - start;
+		if (elapsed > latencyBudget)
+			degrade("write took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+		auditService.auditIngested(saved);
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * Method implementing the logic to get the number of journaled audits
+	 */
+	@Override
+	public long journaled() {
+		return journal.pending();
+	}
+
+	/**
+	 * Method to start the drainer once the application is ready
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void startDrainer() {
+		drainer.scheduleWithFixedDelay(this::drain, 0, drainIntervalMs, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Method to stop the drainer, letting a running batch finish
+	 */
+	@PreDestroy
+	public void stopDrainer() {
+		drainer.shutdown();
+		try {
+			drainer.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Method to drain the journal into the data base, run every
+	 * {@code config.journal.drain-interval-ms} outside a degraded window
+	 */
+	private void drain() {
+		if (journal.isEmpty() || degraded())
+			return;
+		try {
+			ReplicaRoutingDataSource.ingest(this::drainJournal).run();
+		} catch (Exception e) {
+			// An escaping exception would cancel the drainer
+			Log.error(this.getClass().getSimpleName(), "drain", "draining audit journal failed:%n%s",
+					ExceptionUtils.getStackTrace(e));
+		}
+	}
+
+	/**
+	 * Method to drain the journal batch by batch until it is empty or the data
+	 * base fails again
+	 */
+	private void drainJournal() {
+		long drained = 0;
+		try {
+			for (List<String> entries = journal.peek(drainBatchSize); !entries.isEmpty(); entries = journal
+					.peek(drainBatchSize)) {
+				List<Audit> audits = new ArrayList<>(entries.size());
+				List<Audit> saved;
+				try {
+					for (String entry : entries)
+						audits.add(g.fromJson(entry, Audit.class));
+					saved = auditRepo.saveAll(audits);
+				} catch (Exception e) {
+					if (unavailable(e)) {
+						degrade("drain failed: " + e.getMessage());
+						return;
+					}
+					// The failed batch may have assigned ids to its audits; start again from the journal
+					int stored = saveOneByOne(entries);
+					drained += stored;
+					if (stored < entries.size())
+						return;
+					continue;
+				}
+
+				journal.acknowledge();
+				audits.forEach(this::released);
+				saved.forEach(auditService::auditIngested);
+				drained += audits.size();
+			}
+		} catch (IOException e) {
+			Log.error(this.getClass().getSimpleName(), "drainJournal", "reading audit journal failed:%n%s",
+					ExceptionUtils.getStackTrace(e));
+		} finally {
+			if (drained > 0)
+				Log.info(this.getClass().getSimpleName(), "drainJournal",
+						"drained %s audits from the journal, %s remaining", drained, journal.pending());
+		}
+	}
+
+	/**
+	 * Method to save a batch one audit at a time after the batch was rejected,
+	 * dropping the audits the data base rejects. When the data base becomes
+	 * unavailable, the entries before the failing one are acknowledged and a
+	 * degraded window is opened.
+	 *
+	 * @param entries Journal entries of the rejected batch
+	 * @return Number of entries removed from the journal
+	 * @throws IOException If the journal cannot be acknowledged
+	 */
+	private int saveOneByOne(List<String> entries) throws IOException {
+		int done = 0;
+		List<Audit> decoded = new ArrayList<>(entries.size());
+		List<Audit> saved = new ArrayList<>(entries.size());
+		for (String entry : entries) {
+			Audit audit;
+			try {
+				audit = g.fromJson(entry, Audit.class);
+			} catch (Exception e) {
+				Log.error(this.getClass().getSimpleName(), "saveOneByOne",
+						"dropping undecodable journaled audit: %s,%n%s", entry, ExceptionUtils.getStackTrace(e));
+				done++;
+				continue;
+			}
+
+			try {
+				saved.add(auditRepo.save(audit));
+			} catch (Exception e) {
+				if (unavailable(e)) {
+					degrade("drain failed: " + e.getMessage());
+					break;
+				}
+				Log.error(this.getClass().getSimpleName(), "saveOneByOne",
+						"dropping journaled audit rejected by the data base: %s,%n%s", entry,
+						ExceptionUtils.getStackTrace(e));
+			}
+			decoded.add(audit);
+			done++;
+		}
+
+		journal.acknowledge(done);
+		decoded.forEach(this::released);
+		saved.forEach(auditService::auditIngested);
+		return done;
+	}
+
+	/**
+	 * Method to record that a journaled audit has left the journal
+	 *
+	 * @param audit {@link Audit} removed from the journal
+	 */
+	private void released(Audit audit) {
+		journaledRefNos.computeIfPresent(key(audit), (refNo, count) -> count == 1 ? null : count - 1);
+	}
+
+	/**
+	 * Method to append an audit to the journal. An entry whose {@code fsync}
+	 * fails is still in the journal and stays counted for its reference number;
+	 * it is drained, or written again when the record is redelivered.
+	 *
+	 * @param audit {@link Audit} to spill
+	 * @return Future completed once the audit is on disk
+	 * @throws IOException If the journal cannot be written
+	 */
+	private CompletableFuture<Void> spill(Audit audit) throws IOException {
+		journaledRefNos.merge(key(audit), 1, Integer::sum);
+		try {
+			return journal.append(g.toJson(audit));
+		} catch (IOException e) {
+			released(audit);
+			throw e;
+		}
+	}
+
+	/**
+	 * Method to open a degraded window
+	 *
+	 * @param reason Reason logged when the window opens
+	 */
+	private void degrade(String reason) {
+		boolean wasDegraded = degraded();
+		degradedUntil = System.nanoTime() + probeInterval;
+		if (!wasDegraded)
+			Log.error(this.getClass().getSimpleName(), "degrade",
+					"data base degraded (%s), spilling audits to the journal for %s ms", reason,
+					TimeUnit.NANOSECONDS.toMillis(probeInterval));
+	}
+
+	/**
+	 * Method to check whether the data base is in a degraded window
+	 *
+	 * @return {@code true} while the window is open
+	 */
+	private boolean degraded() {
+		return System.nanoTime() - degradedUntil < 0;
+	}
+
+	/**
+	 * Method to check whether a failure means the data base is unavailable,
+	 * rather than that it rejected the audit
+	 *
+	 * @param e Failure of a write
+	 * @return {@code true} if the write may succeed later
+	 */
+	private static boolean unavailable(Exception e) {
+		return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+				|| e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+	}
+
+	/**
+	 * Method to get the key of the reference number of an audit
+	 *
+	 * @param audit {@link Audit} entity
+	 * @return Reference number, or an empty string when there is none
+	 */
+	private static String key(Audit audit) {
+		return Objects.toString(audit.getRefNo(), "");
+	}
+}
@@ -0,0 +1,497 @@
+package com.audit.services.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.audit.config.ReplicaRoutingDataSource;
+import com.audit.repo.AuditRepo;
+import com.audit.services.ReplayService;
+import com.google.gson.Gson;
+import com.model.entity.Audit;
+import com.utilities.log.Log;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class provides the implementation of {@link ReplayService} interface. It
+ * is only active when {@code config.replay.enabled} is set, and starts the
+ * replay on its own thread once the application is ready.
+ *
+ * <p>
+ * The range is configured with these properties:
+ * </p>
+ * <ul>
+ * <li>{@code config.replay.from-offset} or {@code config.replay.from-timestamp}
+ * - First offset, or ISO-8601 instant, of the range; the beginning of each
+ * partition by default</li>
+ * <li>{@code config.replay.to-offset} or {@code config.replay.to-timestamp} -
+ * Offset, or ISO-8601 instant, the range stops before; the end of each
+ * partition when the replay starts by default</li>
+ * </ul>
+ *
+ * <p>
+ * The replay differs from the live listeners in these ways:
+ * </p>
+ * <ul>
+ * <li>Partitions are assigned manually to the {@code config.replay.group-id}
+ * group, so no rebalance touches the live consumer group.</li>
+ * <li>Fetches are large and a poll returns up to
+ * {@code config.replay.batch-size} records.</li>
+ * <li>The audits of a poll are written with one {@code saveAll} in a single
+ * transaction on the ingest connection pool, and only progress is logged,
+ * not each record.</li>
+ * <li>The offsets are committed after each batch, together with the configured
+ * range and the end of the range of their partition in the offset metadata.
+ * After a crash the replay resumes from the committed offsets towards the
+ * same end, so at most the last uncommitted batch is written twice. Offsets
+ * committed for a different range are logged and ignored, and the configured
+ * range is replayed from its start; the first commit replaces them.</li>
+ * <li>With {@code config.replay.skip-existing}, the default, audits whose
+ * reference number and date are already in the data base are not written
+ * again, so a range overlapping the live ingestion or an earlier replay adds
+ * no duplicate rows. Without it, every audit of the range is inserted as a
+ * new row.</li>
+ * </ul>
+ *
+ * <p>
+ * Progress is logged every {@code config.replay.report-interval-ms} and
+ * published as the {@code audit.replay.replayed} and
+ * {@code audit.replay.remaining} gauges. Records that cannot be parsed are
+ * logged and skipped.
+ * </p>
+ *
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/stereotype/Service.html">
+ *      Service </a>
+ * @author Kabir Akware
+ */
+@Service
+@ConditionalOnProperty("config.replay.enabled")
+public class ReplayServiceImpl implements ReplayService {
+
+	/**
+	 * Prefix of the range kept in the committed offset metadata
+	 */
+	private static final String RANGE_METADATA = "range=";
+
+	/**
+	 * Prefix of the end offset kept in the committed offset metadata
+	 */
+	private static final String END_METADATA = ";end=";
+
+	/**
+	 * Longest time a poll waits for records
+	 */
+	private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+	/**
+	 * {@link AuditRepo} repository object
+	 */
+	private final AuditRepo auditRepo;
+
+	/**
+	 * {@link Gson} object to parse the audits
+	 */
+	private final Gson g;
+
+	/**
+	 * Properties of the replay consumer
+	 */
+	private final Properties consumerProperties;
+
+	/**
+	 * Topic to replay
+	 */
+	private final String topic;
+
+	/**
+	 * First offset of the range, or {@code null}
+	 */
+	private final Long fromOffset;
+
+	/**
+	 * Start instant of the range, or {@code null}
+	 */
+	private final Instant fromTimestamp;
+
+	/**
+	 * Offset the range stops before, or {@code null}
+	 */
+	private final Long toOffset;
+
+	/**
+	 * Instant the range stops before, or {@code null}
+	 */
+	private final Instant toTimestamp;
+
+	/**
+	 * Configured range, as kept in the committed offset metadata
+	 */
+	private final String range;
+
+	/**
+	 * {@code true} if audits already in the data base are not written again
+	 */
+	private final boolean skipExisting;
+
+	/**
+	 * Milliseconds between two progress reports
+	 */
+	private final long reportIntervalMs;
+
+	/**
+	 * Audits written since the replay started
+	 */
+	private final AtomicLong replayed = new AtomicLong();
+
+	/**
+	 * Records left in the range
+	 */
+	private final AtomicLong remaining = new AtomicLong(-1);
+
+	/**
+	 * Constructor to create the replay service
+	 *
+	 * @param auditRepo        {@link AuditRepo} repository object
+	 * @param g                {@link Gson} object to parse the audits
+	 * @param registry         {@link MeterRegistry} publishing the progress
+	 * @param bootstrapServers Address of the KAFKA brokers
+	 * @param topic            Topic to replay
+	 * @param groupId          Consumer group of the replay
+	 * @param batchSize        Maximum number of records of a poll
+	 * @param fromOffset       First offset of the range
+	 * @param fromTimestamp    Start instant of the range
+	 * @param toOffset         Offset the range stops before
+	 * @param toTimestamp      Instant the range stops before
+	 * @param skipExisting     {@code true} if audits already in the data base
+	 *                         are not written again
+	 * @param reportIntervalMs Milliseconds between two progress reports
+	 */
+	public ReplayServiceImpl(AuditRepo auditRepo, Gson g, MeterRegistry registry,
+			@Value("${config.kafka.server-details}") String bootstrapServers,
+			@Value("${config.replay.topic:audit-topic}") String topic,
+			@Value("${config.replay.group-id:audit-replay}") String groupId,
+			@Value("${config.replay.batch-size:5000}") int batchSize,
+			@Value("${config.replay.from-offset:#{null}}") Long fromOffset,
+			@Value("${config.replay.from-timestamp:#{null}}") String fromTimestamp,
+			@Value("${config.replay.to-offset:#{null}}") Long toOffset,
+			@Value("${config.replay.to-timestamp:#{null}}") String toTimestamp,
+			@Value("${config.replay.skip-existing:true}") boolean skipExisting,
+			@Value("${config.replay.report-interval-ms:10000}") long reportIntervalMs) {
+		this.auditRepo = auditRepo;
+		this.g = g;
+		this.topic = topic;
+		this.fromOffset = fromOffset;
+		this.fromTimestamp = Objects.isNull(fromTimestamp) ? null : Instant.parse(fromTimestamp);
+		this.toOffset = toOffset;
+		this.toTimestamp = Objects.isNull(toTimestamp) ? null : Instant.parse(toTimestamp);
+		// Timestamps take precedence over offsets, as when the range is resolved
+		this.range = "from:" + (Objects.nonNull(this.fromTimestamp) ? this.fromTimestamp
+				: Objects.toString(fromOffset, "beginning")) + ",to:"
+				+ (Objects.nonNull(this.toTimestamp) ? this.toTimestamp : Objects.toString(toOffset, "end"));
+		this.skipExisting = skipExisting;
+		this.reportIntervalMs = reportIntervalMs;
+
+		consumerProperties = new Properties();
+		consumerProperties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		consumerProperties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+		consumerProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+		consumerProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+		consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+		consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+		consumerProperties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024 * 1024);
+		consumerProperties.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, 64 * 1024 * 1024);
+		consumerProperties.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 8 * 1024 * 1024);
+
+		Gauge.builder("audit.replay.replayed", replayed, AtomicLong::get).register(registry);
+		Gauge.builder("audit.replay.remaining", remaining, AtomicLong::get).register(registry);
+	}
+
+	/**
+	 * Method to start the replay on its own thread once the application is ready
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		Thread replay = new Thread(ReplicaRoutingDataSource.ingest(() -> {
+			try {
+				replay();
+			} catch (Exception e) {
+				Log.error(this.getClass().getSimpleName(), "start", "replay of %s failed, it resumes on restart:%n%s",
+						topic, ExceptionUtils.getStackTrace(e));
+			}
+		}), "audit-replay");
+		replay.setDaemon(true);
+		replay.start();
+	}
+
+	/**
+	 * Method implementing the logic to re-ingest the configured range
+	 */
+	@Override
+	public void replay() {
+		try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerProperties)) {
+			List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+					.map(info -> new TopicPartition(topic, info.partition())).toList();
+			consumer.assign(partitions);
+
+			Map<TopicPartition, OffsetAndMetadata> committed = resumable(
+					consumer.committed(new HashSet<>(partitions)));
+			Map<TopicPartition, Long> end = endOffsets(consumer, partitions, committed);
+			Map<TopicPartition, Long> start = startOffsets(consumer, partitions);
+
+			Set<TopicPartition> active = new HashSet<>();
+			for (TopicPartition partition : partitions) {
+				OffsetAndMetadata offset = committed.get(partition);
+				long position = Objects.nonNull(offset) ? offset.offset() : start.get(partition);
+				consumer.seek(partition, position);
+				if (position < end.get(partition))
+					active.add(partition);
+				else
+					consumer.pause(List.of(partition));
+			}
+			Log.info(this.getClass().getSimpleName(), "replay",
+					"replaying %s range %s from %s to %s, resumed partitions: %s", topic, range, start, end,
+					committed.keySet());
+
+			long began = System.nanoTime();
+			long lastReport = began;
+			while (!active.isEmpty()) {
+				ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+				write(records, end);
+				commit(consumer, records, end);
+
+				long left = 0;
+				for (TopicPartition partition : new ArrayList<>(active)) {
+					long position = consumer.position(partition);
+					if (position >= end.get(partition)) {
+						consumer.pause(List.of(partition));
+						active.remove(partition);
+					} else {
+						left += end.get(partition) - position;
+					}
+				}
+				remaining.set(left);
+
+				long now = System.nanoTime();
+				if (now - lastReport >= reportIntervalMs * 1_000_000 || active.isEmpty()) {
+					lastReport = now;
+					Log.info(this.getClass().getSimpleName(), "replay",
+							"replayed %s audits, %s records remaining, %.0f audits/s", replayed.get(), left,
+							replayed.get() / Math.max(1e-3, (now - began) / 1e9));
+				}
+			}
+			Log.info(this.getClass().getSimpleName(), "replay", "replay of %s complete", topic);
+		}
+	}
+
+	/**
+	 * Method implementing the logic to get the number of audits written
+	 */
+	@Override
+	public long replayed() {
+		return replayed.get();
+	}
+
+	/**
+	 * Method implementing the logic to get the number of records left
+	 */
+	@Override
+	public long remaining() {
+		return remaining.get();
+	}
+
+	/**
+	 * Method to write the audits of a poll inside the range in one transaction
+	 *
+	 * @param records Records of the poll
+	 * @param end     Offset the range stops before, by partition
+	 */
+	private void write(ConsumerRecords<String, String> records, Map<TopicPartition, Long> end) {
+		List<Audit> batch = new ArrayList<>(records.count());
+		for (ConsumerRecord<String, String> record : records) {
+			if (record.offset() >= end.get(new TopicPartition(record.topic(), record.partition())))
+				continue;
+			try {
+				batch.add(g.fromJson(record.value(), Audit.class));
+			} catch (Exception e) {
+				Log.error(this.getClass().getSimpleName(), "write", "skipping record %s-%s@%s: %s", record.topic(),
+						record.partition(), record.offset(), e.getMessage());
+			}
+		}
+		if (skipExisting && !batch.isEmpty())
+			batch = withoutExisting(batch);
+		if (!batch.isEmpty()) {
+			auditRepo.saveAll(batch);
+			replayed.addAndGet(batch.size());
+		}
+	}
+
+	/**
+	 * Method to remove the audits whose reference number and date are already in
+	 * the data base
+	 *
+	 * @param batch Audits of a poll
+	 * @return Audits not yet in the data base
+	 */
+	private List<Audit> withoutExisting(List<Audit> batch) {
+		Set<String> refNos = new HashSet<>();
+		batch.stream().map(Audit::getRefNo).filter(Objects::nonNull).forEach(refNos::add);
+		if (refNos.isEmpty())
+			return batch;
+
+		Set<String> existing = new HashSet<>();
+		for (Object[] row : auditRepo.findRefNoAndDateByRefNoIn(refNos))
+			existing.add(row[0] + "|" + row[1]);
+		// Also drops a record repeated within the poll
+		List<Audit> fresh = batch.stream().filter(audit -> Objects.isNull(audit.getRefNo())
+				|| existing.add(audit.getRefNo() + "|" + audit.getDate())).toList();
+		if (fresh.size() < batch.size())
+			Log.info(this.getClass().getSimpleName(), "withoutExisting", "skipped %s audits already stored",
+					batch.size() - fresh.size());
+		return fresh;
+	}
+
+	/**
+	 * Method to commit the positions reached by a poll, with the end of the range
+	 * in the offset metadata
+	 *
+	 * @param consumer {@link KafkaConsumer} of the replay
+	 * @param records  Records of the poll
+	 * @param end      Offset the range stops before, by partition
+	 */
+	private void commit(KafkaConsumer<String, String> consumer, ConsumerRecords<String, String> records,
+			Map<TopicPartition, Long> end) {
+		Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+		for (TopicPartition partition : records.partitions()) {
+			List<ConsumerRecord<String, String>> polled = records.records(partition);
+			long next = Math.min(polled.get(polled.size() - 1).offset() + 1, end.get(partition));
+			offsets.put(partition,
+					new OffsetAndMetadata(next, RANGE_METADATA + range + END_METADATA + end.get(partition)));
+		}
+		if (!offsets.isEmpty())
+			consumer.commitSync(offsets);
+	}
+
+	/**
+	 * Method to keep the offsets committed for the configured range. Offsets
+	 * committed for another range, or without a range, are logged and ignored.
+	 *
+	 * @param committed Offsets committed by an earlier run, by partition
+	 * @return Offsets to resume from, by partition
+	 */
+	private Map<TopicPartition, OffsetAndMetadata> resumable(Map<TopicPartition, OffsetAndMetadata> committed) {
+		Map<TopicPartition, OffsetAndMetadata> resumable = new HashMap<>();
+		committed.forEach((partition, offset) -> {
+			if (Objects.isNull(offset))
+				return;
+			if (Objects.toString(offset.metadata(), "").startsWith(RANGE_METADATA + range + END_METADATA))
+				resumable.put(partition, offset);
+			else
+				Log.error(this.getClass().getSimpleName(), "resumable",
+						"offset %s of %s was committed for '%s', not range %s; replaying the range from its start",
+						offset.offset(), partition, offset.metadata(), range);
+		});
+		return resumable;
+	}
+
+	/**
+	 * Method to resolve the start of the range of each partition
+	 *
+	 * @param consumer   {@link KafkaConsumer} of the replay
+	 * @param partitions Partitions of the topic
+	 * @return First offset of the range, by partition
+	 */
+	private Map<TopicPartition, Long> startOffsets(KafkaConsumer<String, String> consumer,
+			List<TopicPartition> partitions) {
+		Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+		if (Objects.nonNull(fromTimestamp))
+			return offsetsForTime(consumer, partitions, fromTimestamp);
+
+		Map<TopicPartition, Long> start = new HashMap<>();
+		for (TopicPartition partition : partitions)
+			start.put(partition, Objects.isNull(fromOffset) ? beginning.get(partition)
+					: Math.max(fromOffset, beginning.get(partition)));
+		return start;
+	}
+
+	/**
+	 * Method to resolve the end of the range of each partition. A partition
+	 * resumed after a crash keeps the end committed with its offset.
+	 *
+	 * @param consumer   {@link KafkaConsumer} of the replay
+	 * @param partitions Partitions of the topic
+	 * @param committed  Offsets committed for the range by an earlier run
+	 * @return Offset the range stops before, by partition
+	 */
+	private Map<TopicPartition, Long> endOffsets(KafkaConsumer<String, String> consumer,
+			List<TopicPartition> partitions, Map<TopicPartition, OffsetAndMetadata> committed) {
+		Map<TopicPartition, Long> latest = consumer.endOffsets(partitions);
+		Map<TopicPartition, Long> byTime = Objects.isNull(toTimestamp) ? Map.of()
+				: offsetsForTime(consumer, partitions, toTimestamp);
+
+		Map<TopicPartition, Long> end = new HashMap<>();
+		for (TopicPartition partition : partitions) {
+			OffsetAndMetadata offset = committed.get(partition);
+			if (Objects.nonNull(offset))
+				end.put(partition, Long.parseLong(
+						offset.metadata().substring(offset.metadata().lastIndexOf(END_METADATA) + END_METADATA.length())));
+			else if (Objects.nonNull(toTimestamp))
+				end.put(partition, byTime.get(partition));
+			else
+				end.put(partition, Objects.isNull(toOffset) ? latest.get(partition)
+						: Math.min(toOffset, latest.get(partition)));
+		}
+		return end;
+	}
+
+	/**
+	 * Method to find the first offset of each partition at or after an instant
+	 *
+	 * @param consumer   {@link KafkaConsumer} of the replay
+	 * @param partitions Partitions of the topic
+	 * @param instant    Instant to look up
+	 * @return First offset at or after the instant, or the end of the partition
+	 *         when there is none, by partition
+	 */
+	private static Map<TopicPartition, Long> offsetsForTime(KafkaConsumer<String, String> consumer,
+			List<TopicPartition> partitions, Instant instant) {
+		Map<TopicPartition, Long> query = new HashMap<>();
+		for (TopicPartition partition : partitions)
+			query.put(partition, instant.toEpochMilli());
+
+		Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(query);
+		Map<TopicPartition, Long> latest = consumer.endOffsets(partitions);
+		Map<TopicPartition, Long> offsets = new HashMap<>();
+		for (TopicPartition partition : partitions) {
+			OffsetAndTimestamp offset = found.get(partition);
+			offsets.put(partition, Objects.isNull(offset) ? latest.get(partition) : offset.offset());
+		}
+		return offsets;
+	}
+}
@@ -0,0 +1,244 @@
+package com.audit.services.impl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.audit.exception.AppException;
+import com.audit.repo.AuditRepo;
+import com.audit.services.SearchService;
+import com.audit.utility.AuditSearchIndex;
+import com.model.entity.Audit;
+import com.model.enums.Codes;
+import com.model.projections.AuditProjection;
+import com.utilities.log.Log;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class provides the implementation of {@link SearchService} interface.
+ *
+ * <p>
+ * The {@link AuditSearchIndex} is fed by an indexer thread of its own, which
+ * tails the audit table every {@code config.search.refresh-ms}: it reads the
+ * audits above the highest id indexed in batches of
+ * {@code config.search.batch-size}, indexes them and refreshes the searchers,
+ * so a persisted audit is searchable about a refresh interval later. The
+ * indexer reads from the replica data base when one is configured and never
+ * touches the consumer threads, so indexing adds no ingest latency. Tailing
+ * the table rather than the KAFKA partitions of this instance makes every
+ * instance index all audits, whichever instance persisted them; a new index is
+ * built from the whole table the same way.
+ * </p>
+ *
+ * <p>
+ * Concurrent consumers may commit audits out of id order. Every
+ * {@code config.search.rescan-ms} the tail starts
+ * {@code config.search.rescan-ids} ids below the highest id indexed, picking up
+ * audits committed late; an audit committed later than that is only indexed
+ * when the index is rebuilt by deleting {@code config.search.dir}. The index is
+ * committed every {@code config.search.commit-ms}. The highest id indexed is
+ * published as the {@code audit.search.indexed.id} gauge.
+ * </p>
+ *
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/stereotype/Service.html">
+ *      Service </a>
+ * @author Kabir Akware
+ */
+@Service
+public class SearchServiceImpl implements SearchService {
+
+	/**
+	 * Largest number of audits returned by a search
+	 */
+	private static final int MAX_LIMIT = 500;
+
+	/**
+	 * {@link AuditRepo} repository object
+	 */
+	private final AuditRepo auditRepo;
+
+	/**
+	 * {@link AuditSearchIndex} of the audits
+	 */
+	private final AuditSearchIndex index;
+
+	/**
+	 * Number of audits read and indexed at a time
+	 */
+	private final int batchSize;
+
+	/**
+	 * Delay between two tails of the audit table in milliseconds
+	 */
+	private final long refreshMs;
+
+	/**
+	 * Number of ids below the highest id indexed that a rescan starts from
+	 */
+	private final long rescanIds;
+
+	/**
+	 * Interval between two rescans in nanoseconds
+	 */
+	private final long rescanNanos;
+
+	/**
+	 * Interval between two commits of the index in nanoseconds
+	 */
+	private final long commitNanos;
+
+	/**
+	 * Highest audit id indexed
+	 */
+	private final AtomicLong indexedId = new AtomicLong();
+
+	/**
+	 * Thread tailing the audit table into the index
+	 */
+	private final ScheduledExecutorService indexer = Executors.newSingleThreadScheduledExecutor(task -> {
+		Thread thread = new Thread(task, "audit-search-indexer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * {@link System#nanoTime()} of the last rescan
+	 */
+	private long lastRescan = System.nanoTime();
+
+	/**
+	 * {@link System#nanoTime()} of the last commit
+	 */
+	private long lastCommit = System.nanoTime();
+
+	/**
+	 * {@code true} while documents were indexed after the last commit
+	 */
+	private boolean uncommitted;
+
+	/**
+	 * Constructor to create the service
+	 *
+	 * @param auditRepo  {@link AuditRepo} repository object
+	 * @param index      {@link AuditSearchIndex} of the audits
+	 * @param registry   {@link MeterRegistry} publishing the indexer gauge
+	 * @param batchSize  Number of audits read and indexed at a time
+	 * @param refreshMs  Delay between two tails of the audit table in
+	 *                   milliseconds
+	 * @param rescanIds  Number of ids below the highest id indexed that a rescan
+	 *                   starts from
+	 * @param rescanMs   Interval between two rescans in milliseconds
+	 * @param commitMs   Interval between two commits of the index in milliseconds
+	 */
+	public SearchServiceImpl(AuditRepo auditRepo, AuditSearchIndex index, MeterRegistry registry,
+			@Value("${config.search.batch-size:1000}") int batchSize,
+			@Value("${config.search.refresh-ms:1000}") long refreshMs,
+			@Value("${config.search.rescan-ids:5000}") long rescanIds,
+			@Value("${config.search.rescan-ms:60000}") long rescanMs,
+			@Value("${config.search.commit-ms:30000}") long commitMs) {
+		this.auditRepo = auditRepo;
+		this.index = index;
+		this.batchSize = Math.max(1, batchSize);
+		this.refreshMs = Math.max(1, refreshMs);
+		this.rescanIds = Math.max(0, rescanIds);
+		this.rescanNanos = TimeUnit.MILLISECONDS.toNanos(rescanMs);
+		this.commitNanos = TimeUnit.MILLISECONDS.toNanos(commitMs);
+		this.indexedId.set(index.indexedId());
+		Gauge.builder("audit.search.indexed.id", indexedId, AtomicLong::get).register(registry);
+	}
+
+	/**
+	 * Method implementing the logic to search the index and read the matching
+	 * audits from the data base
+	 */
+	@Override
+	public List<AuditProjection> search(String query, int limit) throws AppException {
+		List<Integer> ids;
+		try {
+			ids = index.search(query, Math.max(1, Math.min(limit, MAX_LIMIT)));
+		} catch (ParseException e) {
+			throw AppException.getInstance("Invalid search query", e.getMessage(), Codes.ERR01,
+					HttpStatus.BAD_REQUEST);
+		} catch (IOException e) {
+			throw AppException.getInstance("Something went wrong!! Kindly contact administrator", e.getMessage(),
+					Codes.ERR01, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+		return ids.isEmpty() ? List.of() : auditRepo.findByIdInOrderByIdDesc(ids);
+	}
+
+	/**
+	 * Method to start the indexer once the application is ready
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void startIndexer() {
+		indexer.scheduleWithFixedDelay(this::tail, 0, refreshMs, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Method to stop the indexer and commit what it indexed
+	 */
+	@PreDestroy
+	public void stopIndexer() {
+		indexer.shutdown();
+		try {
+			if (indexer.awaitTermination(10, TimeUnit.SECONDS) && uncommitted)
+				index.commit(indexedId.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			Log.error(this.getClass().getSimpleName(), "stopIndexer", "committing search index failed:%n%s",
+					ExceptionUtils.getStackTrace(e));
+		}
+	}
+
+	/**
+	 * Method to index the audits persisted since the last tail
+	 */
+	private void tail() {
+		try {
+			long from = indexedId.get();
+			if (System.nanoTime() - lastRescan >= rescanNanos) {
+				from = Math.max(0, from - rescanIds);
+				lastRescan = System.nanoTime();
+			}
+
+			List<Audit> audits;
+			do {
+				audits = auditRepo.findByIdGreaterThanOrderByIdAsc((int) from, PageRequest.of(0, batchSize));
+				if (audits.isEmpty())
+					break;
+				index.index(audits);
+				from = audits.get(audits.size() - 1).getId();
+				indexedId.accumulateAndGet(from, Math::max);
+				uncommitted = true;
+			} while (audits.size() == batchSize);
+
+			index.refresh();
+			if (uncommitted && System.nanoTime() - lastCommit >= commitNanos) {
+				index.commit(indexedId.get());
+				lastCommit = System.nanoTime();
+				uncommitted = false;
+			}
+		} catch (Exception e) {
+			Log.error(this.getClass().getSimpleName(), "tail", "indexing audits failed:%n%s",
+					ExceptionUtils.getStackTrace(e));
+		}
+	}
+}
@@ -0,0 +1,345 @@
+package com.audit.services.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import com.audit.services.TokenService;
+import com.audit.utility.CredentialCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.utilities.exceptions.ConfigException;
+import com.utilities.log.Log;
+
+/**
+ * This class provides the implementation of {@link TokenService} interface,
+ * issuing tokens signed with HMAC-SHA256 under the shared
+ * {@code config.auth.token.secret} that expire after
+ * {@code config.auth.token.ttl-seconds}.
+ *
+ * <p>
+ * A token carries the user name, the authorities, its issue time and its
+ * expiry, followed by the signature over them. Every instance configured with
+ * the same secret resolves the token by verifying the signature and the
+ * expiry, without any lookup, so a client may be served by any replica. When no
+ * secret is configured a random one is generated and the tokens are only valid
+ * on the instance that issued them.
+ * </p>
+ *
+ * <p>
+ * Revoking a token, or every token of a user, is recorded in a bounded
+ * Caffeine cache until the revoked tokens have expired, and broadcast on
+ * {@code config.auth.token.revocation-topic}. Every instance consumes that
+ * topic from the earliest retained offset in a consumer group of its own, so
+ * it applies the revocations of the other replicas within the consumer
+ * latency, and those published before it started. The retention of the topic
+ * must cover {@code config.auth.token.ttl-seconds}; older revocations concern
+ * expired tokens only. Revoking every token of a user also drops the verified
+ * credentials of the user from the {@link CredentialCache} of every instance.
+ * </p>
+ *
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/stereotype/Service.html">
+ *      Service </a>
+ * @author Kabir Akware
+ */
+@Service
+public class TokenServiceImpl implements TokenService {
+
+	/**
+	 * MAC algorithm signing the tokens
+	 */
+	private static final String ALGORITHM = "HmacSHA256";
+
+	/**
+	 * Separator of the claims in the token body, never part of a user name or
+	 * an authority
+	 */
+	private static final String SEPARATOR = "\n";
+
+	/**
+	 * Kind of the revocation of one token, keyed by its signature
+	 */
+	private static final String TOKEN_REVOCATION = "token";
+
+	/**
+	 * Kind of the revocation of every token of a user, keyed by the user name
+	 */
+	private static final String USER_REVOCATION = "user";
+
+	/**
+	 * Source of randomness for the token ids
+	 */
+	private final SecureRandom random = new SecureRandom();
+
+	/**
+	 * Per-thread {@link Mac} instances under the signing key, as {@link Mac} is
+	 * not thread safe
+	 */
+	private final ThreadLocal<Mac> mac;
+
+	/**
+	 * {@link CredentialCache} of verified credentials
+	 */
+	private final CredentialCache credentialCache;
+
+	/**
+	 * {@link KafkaProducer} broadcasting the revocations
+	 */
+	private final KafkaProducer<String, String> producer;
+
+	/**
+	 * Topic the revocations are broadcast on
+	 */
+	private final String revocationTopic;
+
+	/**
+	 * Signatures of the revoked tokens
+	 */
+	private final Cache<String, Boolean> revokedTokens;
+
+	/**
+	 * Users mapped to the time in milliseconds before which their tokens are
+	 * revoked
+	 */
+	private final Cache<String, Long> revokedBefore;
+
+	/**
+	 * Validity of issued tokens in seconds
+	 */
+	private final long ttlSeconds;
+
+	/**
+	 * Constructor to create the token signer with the configured key, expiry and
+	 * revocation size
+	 *
+	 * @param secret          Shared secret signing the tokens, at least 32 bytes
+	 * @param ttlSeconds      Time in seconds for which an issued token is valid
+	 * @param maxSize         Maximum number of revocations kept in memory
+	 * @param credentialCache {@link CredentialCache} of verified credentials
+	 * @param producer        {@link KafkaProducer} broadcasting the revocations
+	 * @param revocationTopic Topic the revocations are broadcast on
+	 */
+	public TokenServiceImpl(@Value("${config.auth.token.secret:}") String secret,
+			@Value("${config.auth.token.ttl-seconds:900}") long ttlSeconds,
+			@Value("${config.auth.token.max-size:100000}") long maxSize, CredentialCache credentialCache,
+			KafkaProducer<String, String> producer,
+			@Value("${config.auth.token.revocation-topic:token-revocation-topic}") String revocationTopic) {
+		byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+		if (secret.isBlank()) {
+			secretBytes = new byte[32];
+			random.nextBytes(secretBytes);
+			Log.error(this.getClass().getSimpleName(), "TokenServiceImpl",
+					"config.auth.token.secret is not set, bearer tokens are only valid on this instance");
+		} else if (secretBytes.length < 32)
+			throw ConfigException.getInstance("config.auth.token.secret must be at least 32 bytes long");
+
+		SecretKeySpec key = new SecretKeySpec(secretBytes, ALGORITHM);
+		this.mac = ThreadLocal.withInitial(() -> {
+			try {
+				Mac instance = Mac.getInstance(ALGORITHM);
+				instance.init(key);
+				return instance;
+			} catch (GeneralSecurityException e) {
+				throw ConfigException
+						.getInstance("Exception occurred while initializing bearer token signer: " + e.getMessage());
+			}
+		});
+		this.credentialCache = credentialCache;
+		this.producer = producer;
+		this.revocationTopic = revocationTopic;
+		this.ttlSeconds = ttlSeconds;
+		this.revokedTokens = Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.maximumSize(maxSize).build();
+		this.revokedBefore = Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.maximumSize(maxSize).build();
+	}
+
+	/**
+	 * Method implementing the logic to issue a signed token for the verified user
+	 */
+	@Override
+	public String issue(Authentication authentication) {
+		byte[] id = new byte[16];
+		random.nextBytes(id);
+		long now = System.currentTimeMillis();
+		String body = String.join(SEPARATOR, authentication.getName(),
+				authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+						.collect(Collectors.joining(",")),
+				Long.toString(now), Long.toString(now + Duration.ofSeconds(ttlSeconds).toMillis()),
+				Base64.getUrlEncoder().withoutPadding().encodeToString(id));
+		byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+		return encode(bodyBytes) + "." + encode(sign(bodyBytes));
+	}
+
+	/**
+	 * Method implementing the logic to resolve the token by verifying its
+	 * signature, expiry and revocation
+	 */
+	@Override
+	public Optional<Authentication> authenticate(String token) {
+		String[] claims = verify(token);
+		if (Objects.isNull(claims))
+			return Optional.empty();
+
+		String username = claims[0];
+		long issuedAt = Long.parseLong(claims[2]);
+		Long notBefore = revokedBefore.getIfPresent(username);
+		if (Long.parseLong(claims[3]) <= System.currentTimeMillis()
+				|| Objects.nonNull(revokedTokens.getIfPresent(token.substring(token.indexOf('.') + 1)))
+				|| (Objects.nonNull(notBefore) && issuedAt <= notBefore))
+			return Optional.empty();
+
+		return Optional.of(UsernamePasswordAuthenticationToken.authenticated(username, null,
+				Stream.of(claims[1].split(",")).filter(authority -> !authority.isEmpty())
+						.map(SimpleGrantedAuthority::new).toList()));
+	}
+
+	/**
+	 * Method implementing the logic to revoke the token on this instance and
+	 * broadcast the revocation to the other instances
+	 */
+	@Override
+	public void revoke(String token) {
+		if (authenticate(token).isEmpty())
+			return;
+
+		String signature = token.substring(token.indexOf('.') + 1);
+		revokedTokens.put(signature, Boolean.TRUE);
+		broadcast(TOKEN_REVOCATION, signature, Long.parseLong(verify(token)[3]));
+	}
+
+	/**
+	 * Method implementing the logic to revoke every token of the user issued so
+	 * far on this instance and broadcast the revocation to the other instances
+	 */
+	@Override
+	public void revokeAll(String username) {
+		long now = System.currentTimeMillis();
+		revokedBefore.asMap().merge(username, now, Math::max);
+		broadcast(USER_REVOCATION, username, now);
+	}
+
+	/**
+	 * Method to apply a revocation broadcast by any instance, this one included.
+	 * Revocations whose tokens have all expired are skipped.
+	 *
+	 * @param record KAFKA {@link ConsumerRecord} keyed by the kind of the
+	 *               revocation, holding its subject and time
+	 */
+	@KafkaListener(id = "token-revocations", topics = "${config.auth.token.revocation-topic:token-revocation-topic}",
+			groupId = "token-revocations-${random.uuid}", containerFactory = "revocationListenerContainerFactory")
+	public void onRevocation(ConsumerRecord<String, String> record) {
+		String[] revocation = Objects.toString(record.value(), "").split(SEPARATOR, -1);
+		if (revocation.length != 2)
+			return;
+
+		String subject = revocation[0];
+		long time;
+		try {
+			time = Long.parseLong(revocation[1]);
+		} catch (NumberFormatException e) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (TOKEN_REVOCATION.equals(record.key()) && time > now)
+			revokedTokens.put(subject, Boolean.TRUE);
+		else if (USER_REVOCATION.equals(record.key()) && time + Duration.ofSeconds(ttlSeconds).toMillis() > now) {
+			revokedBefore.asMap().merge(subject, time, Math::max);
+			credentialCache.invalidate(subject);
+		}
+	}
+
+	/**
+	 * Method implementing the logic to get the validity of issued tokens
+	 */
+	@Override
+	public long ttlSeconds() {
+		return ttlSeconds;
+	}
+
+	/**
+	 * Method to verify the signature of a token and read its claims
+	 *
+	 * @param token Signed bearer token
+	 * @return Claims of the token, or {@code null} when it is malformed or its
+	 *         signature does not match
+	 */
+	private String[] verify(String token) {
+		int dot = token.indexOf('.');
+		if (dot <= 0)
+			return null;
+
+		try {
+			byte[] body = Base64.getUrlDecoder().decode(token.substring(0, dot));
+			byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+			if (!MessageDigest.isEqual(sign(body), signature))
+				return null;
+			String[] claims = new String(body, StandardCharsets.UTF_8).split(SEPARATOR, -1);
+			return claims.length == 5 ? claims : null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Method to sign a token body
+	 *
+	 * @param body Token body
+	 * @return HMAC-SHA256 of the body
+	 */
+	private byte[] sign(byte[] body) {
+		return mac.get().doFinal(body);
+	}
+
+	/**
+	 * Method to broadcast a revocation to every instance. A failed broadcast is
+	 * logged; the revocation still applies on this instance.
+	 *
+	 * @param kind    {@value #TOKEN_REVOCATION} or {@value #USER_REVOCATION}
+	 * @param subject Signature of the token, or user name
+	 * @param time    Expiry of the token, or time before which the tokens of
+	 *                the user are revoked, in milliseconds
+	 */
+	private void broadcast(String kind, String subject, long time) {
+		producer.send(new ProducerRecord<>(revocationTopic, kind, subject + SEPARATOR + time), (metadata, e) -> {
+			if (Objects.nonNull(e))
+				Log.error(this.getClass().getSimpleName(), "broadcast",
+						"Error broadcasting %s revocation, it only applies on this instance: %s", kind,
+						ExceptionUtils.getStackTrace(e));
+		});
+	}
+
+	/**
+	 * Method to encode bytes for a token
+	 *
+	 * @param bytes Bytes to encode
+	 * @return URL safe Base64 without padding
+	 */
+	private static String encode(byte[] bytes) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+}
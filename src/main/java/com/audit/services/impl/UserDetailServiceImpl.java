@@ -1,20 +1,35 @@
 package com.audit.services.impl;
 
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.audit.config.CacheConfig;
 import com.audit.config.UserPricipal;
 import com.audit.exception.AppException;
 import com.audit.exception.UserNameNotFound;
+import com.audit.projections.UserSummary;
 import com.audit.repo.UserDetailsRepo;
+import com.audit.services.TokenService;
 import com.audit.services.UserDetailService;
 import com.audit.utility.CommonUtility;
+import com.audit.utility.CredentialCache;
+import com.google.gson.stream.JsonWriter;
 import com.model.dto.UserDto;
 import com.model.entity.Users;
 import com.model.enums.Codes;
@@ -38,20 +53,51 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class UserDetailServiceImpl implements UserDetailService {
 
+	/**
+	 * Maximum number of users returned in a page
+	 */
+	private static final int MAX_PAGE_SIZE = 1000;
+
 	/**
 	 * {@link UserDetailsRepo} object
 	 */
 	private UserDetailsRepo userDetailsRepo;
 
+	/**
+	 * {@link CredentialCache} of recently verified credentials
+	 */
+	private CredentialCache credentialCache;
+
+	/**
+	 * {@code TokenService} interface variable
+	 */
+	private TokenService tokenService;
+
+	/**
+	 * {@link CacheManager} holding the user details caches
+	 */
+	private CacheManager cacheManager;
+
 	/**
 	 * Method to authenticate the user in the system by verifying the user name and
 	 * password shared by the user with the details saved in the database.
+	 * 
+	 * <p>
+	 * Unknown user names are remembered for a short time, so repeated attempts
+	 * with them are rejected without hitting the database.
+	 * </p>
 	 */
 	@Override
-	@Cacheable(value = "loadUserByUsername")
+	@Cacheable(value = CacheConfig.USERS)
 	public UserDetails loadUserByUsername(String user) throws UserNameNotFound {
-		return UserPricipal.getInstance(userDetailsRepo.findById(user)
-				.orElseThrow(() -> UserNameNotFound.getInstance(user + " not found!!")));
+		Cache missingUsers = cacheManager.getCache(CacheConfig.MISSING_USERS);
+		if (Objects.nonNull(missingUsers.get(user)))
+			throw UserNameNotFound.getInstance(user + " not found!!");
+
+		return UserPricipal.getInstance(userDetailsRepo.findById(user).orElseThrow(() -> {
+			missingUsers.put(user, Boolean.TRUE);
+			return UserNameNotFound.getInstance(user + " not found!!");
+		}));
 	}
 
 	/**
@@ -61,7 +107,10 @@ public class UserDetailServiceImpl implements UserDetailService {
 	 * This implementation gets the {@code user name} and {@code password} given by
 	 * the user and persists them in the database. The passwords are hashed and
 	 * stored to maintain privacy. This method also updates the data for a
-	 * particular user if the data is present in the database.
+	 * particular user if the data is present in the database. Cached user
+	 * details, cached credentials and bearer tokens of the user are invalidated
+	 * as soon as the user is saved, before the method returns, as the password
+	 * or authorities may have changed.
 	 * </p>
 	 * 
 	 */
@@ -73,6 +122,10 @@ public class UserDetailServiceImpl implements UserDetailService {
 						: userDto.getAuthorities().toUpperCase());
 		try {
 			userDetailsRepo.save(user);
+			cacheManager.getCache(CacheConfig.USERS).evict(user.getUserName());
+			cacheManager.getCache(CacheConfig.MISSING_USERS).evict(user.getUserName());
+			credentialCache.invalidate(user.getUserName());
+			tokenService.revokeAll(user.getUserName());
 		} catch (Exception e) {
 			throw AppException.getInstance("Something went wrong!! Kindly contact administrator", e.getMessage(),
 					Codes.ERR01, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -82,21 +135,48 @@ public class UserDetailServiceImpl implements UserDetailService {
 	}
 
 	/**
-	 * Method to register the user in the system by persisting it in the database
+	 * Method to fetch a keyset page of users from the database
 	 * 
 	 * <p>
-	 * This implementation gets the {@code user name} and {@code password} given by
-	 * the user and persists them in the database. The passwords are hashed and
-	 * stored to maintain privacy. This method also updates the data for a
-	 * particular user if the data is present in the database.
+	 * This implementation seeks past the given user name instead of using an
+	 * offset, so every page costs the same regardless of its position. Only the
+	 * user name and authorities are read; password hashes never leave the
+	 * database.
 	 * </p>
-	 * @throws AppException 
-	 * 
 	 */
 	@Override
-	public List<Users> getUsers() throws AppException {
+	public List<UserSummary> getUsers(String after, int limit) throws AppException {
 		try {
-			return userDetailsRepo.findAll();
+			return userDetailsRepo.findByUserNameGreaterThanOrderByUserNameAsc(Objects.toString(after, ""),
+					Limit.of(Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
+		} catch (Exception e) {
+			throw AppException.getInstance("Something went wrong!! Kindly contact administrator", e.getMessage(),
+					Codes.ERR01, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	/**
+	 * Method to write all users in the database as a JSON array
+	 * 
+	 * <p>
+	 * This implementation reads the users from a data base cursor and serializes
+	 * each row as soon as it is fetched, so the heap usage stays flat no matter
+	 * how many users exist.
+	 * </p>
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void streamUsers(OutputStream out) throws AppException {
+		try (Stream<UserSummary> users = userDetailsRepo.streamAllByOrderByUserNameAsc()) {
+			JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+			writer.beginArray();
+			for (Iterator<UserSummary> it = users.iterator(); it.hasNext();) {
+				UserSummary user = it.next();
+				writer.beginObject().name("userName").value(user.userName()).name("authorities")
+						.value(user.authorities()).endObject();
+			}
+			writer.endArray();
+			writer.flush();
 		} catch (Exception e) {
 			throw AppException.getInstance("Something went wrong!! Kindly contact administrator", e.getMessage(),
 					Codes.ERR01, HttpStatus.INTERNAL_SERVER_ERROR);
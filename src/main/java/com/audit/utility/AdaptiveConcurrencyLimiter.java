@@ -0,0 +1,173 @@
+package com.audit.utility;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limiter following the gradient algorithm.
+ *
+ * <p>
+ * The limiter compares the short-term latency of the requests with a slowly
+ * moving long-term baseline. While latency stays close to the baseline the
+ * limit grows by a small queue allowance; as soon as requests start queueing
+ * and latency rises, the gradient {@code long / short} drops below one and the
+ * limit shrinks accordingly. Requests over the limit are rejected right away
+ * instead of waiting for a data base connection.
+ * </p>
+ *
+ * <p>
+ * Admission is a single compare-and-set on the in-flight counter; only the
+ * latency samples update the limit under a short lock.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	/**
+	 * Factor by which the short-term latency may exceed the baseline before the
+	 * limit is reduced
+	 */
+	private static final double TOLERANCE = 1.5;
+
+	/**
+	 * Weight of a new limit estimate in the smoothed limit
+	 */
+	private static final double SMOOTHING = 0.2;
+
+	/**
+	 * Weight of a new sample in the long-term latency baseline
+	 */
+	private static final double LONG_WINDOW_WEIGHT = 1.0 / 600;
+
+	/**
+	 * Weight of a new sample in the short-term latency
+	 */
+	private static final double SHORT_WINDOW_WEIGHT = 1.0 / 10;
+
+	/**
+	 * Lower bound of the limit
+	 */
+	private final int minLimit;
+
+	/**
+	 * Upper bound of the limit
+	 */
+	private final int maxLimit;
+
+	/**
+	 * Number of requests currently in flight
+	 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/**
+	 * Current concurrency limit
+	 */
+	private volatile int limit;
+
+	/**
+	 * Smoothed limit estimate backing {@link #limit}
+	 */
+	private double estimatedLimit;
+
+	/**
+	 * Long-term latency baseline in nanoseconds
+	 */
+	private double longRtt;
+
+	/**
+	 * Short-term latency in nanoseconds
+	 */
+	private double shortRtt;
+
+	/**
+	 * Constructor to create a limiter with the given bounds
+	 *
+	 * @param initialLimit Limit before any latency has been measured
+	 * @param minLimit     Lower bound of the limit
+	 * @param maxLimit     Upper bound of the limit
+	 */
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+		this.minLimit = Math.max(1, minLimit);
+		this.maxLimit = Math.max(this.minLimit, maxLimit);
+		this.limit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+		this.estimatedLimit = this.limit;
+	}
+
+	/**
+	 * Method to try to admit a request
+	 *
+	 * @return {@code true} if the request may proceed, in which case
+	 *         {@link #release(long, boolean)} must be called once it completes
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit)
+				return false;
+			if (inFlight.compareAndSet(current, current + 1))
+				return true;
+		}
+	}
+
+	/**
+	 * Method to release an admitted request and feed its latency to the limiter
+	 *
+	 * @param rttNanos Latency of the request in nanoseconds
+	 * @param sample   {@code false} to release without sampling, e.g. for failed
+	 *                 requests whose latency is not representative
+	 */
+	public void release(long rttNanos, boolean sample) {
+		int current = inFlight.getAndDecrement();
+		if (sample && rttNanos > 0)
+			update(rttNanos, current);
+	}
+
+	/**
+	 * Method to get the current limit
+	 *
+	 * @return Current concurrency limit
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Method to get the number of requests in flight
+	 *
+	 * @return Requests currently in flight
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Method to recompute the limit from a latency sample
+	 *
+	 * @param rttNanos Latency of the request in nanoseconds
+	 * @param inFlight Requests in flight when the request completed
+	 */
+	private synchronized void update(long rttNanos, int inFlight) {
+		if (longRtt == 0) {
+			longRtt = rttNanos;
+			shortRtt = rttNanos;
+			return;
+		}
+
+		shortRtt += (rttNanos - shortRtt) * SHORT_WINDOW_WEIGHT;
+		longRtt += (rttNanos - longRtt) * LONG_WINDOW_WEIGHT;
+
+		// Let the baseline recover quickly after a period of sustained high latency
+		if (longRtt / shortRtt > 2)
+			longRtt *= 0.95;
+
+		// Do not grow the limit while it is not being used
+		if (inFlight < estimatedLimit / 2)
+			return;
+
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+		double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+		estimatedLimit = Math.max(minLimit,
+				Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+		limit = (int) estimatedLimit;
+	}
+}
@@ -0,0 +1,202 @@
+package com.audit.utility;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.model.entity.Audit;
+import com.utilities.log.Log;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class decodes the audit payloads of the ingest path, sharing one
+ * {@link String} instance per distinct value of the low-cardinality fields.
+ *
+ * <p>
+ * Fields such as channel ids, service names or codes take a handful of values,
+ * yet Gson allocates a new {@link String} for each of them in every payload,
+ * and each one stays on the heap for as long as its audit is held in the
+ * {@link RecentAuditBuffer}, the journal write path or a cache. Once an audit
+ * is decoded, the properties named by {@code config.audit.intern.fields} of at
+ * most {@code config.audit.intern.max-length} characters are replaced, through
+ * their getters and setters, by the instance already held in a concurrent
+ * interning table, so the decoded copy is garbage right away and only one copy
+ * per value is retained. The other strings of the payload are decoded by Gson
+ * as usual, without any per-value check.
+ * </p>
+ *
+ * <p>
+ * No property is interned by default, since the properties of {@link Audit}
+ * belong to the model module. A configured name that is not a String property
+ * with a getter and a setter is logged and skipped, so the decoder never fails
+ * the start up over it.
+ * </p>
+ *
+ * <p>
+ * The table is bounded by {@code config.audit.intern.capacity} entries. Once it
+ * is full, new values are no longer added and are returned as decoded, so a
+ * field that turns out to have a high cardinality cannot grow the heap. The
+ * size of the table is published as the {@code audit.intern.size} gauge.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Component
+public class AuditDecoder {
+
+	/**
+	 * Interned values, each mapped to itself
+	 */
+	private final Map<String, String> table = new ConcurrentHashMap<>();
+
+	/**
+	 * Getters and setters of the interned properties
+	 */
+	private final List<PropertyDescriptor> fields = new ArrayList<>();
+
+	/**
+	 * Maximum number of interned values
+	 */
+	private final int capacity;
+
+	/**
+	 * Maximum length of an interned value
+	 */
+	private final int maxLength;
+
+	/**
+	 * {@link Gson} object decoding the strings through the table
+	 */
+	private final Gson gson;
+
+	/**
+	 * Constructor to create the decoder
+	 *
+	 * @param g         {@link Gson} bean of the application
+	 * @param registry  {@link MeterRegistry} publishing the table size
+	 * @param fields    Properties of {@link Audit} whose values are interned
+	 * @param capacity  Maximum number of interned values
+	 * @param maxLength Maximum length of an interned value
+	 */
+	public AuditDecoder(Gson g, MeterRegistry registry,
+			@Value("${config.audit.intern.fields:}") List<String> fields,
+			@Value("${config.audit.intern.capacity:4096}") int capacity,
+			@Value("${config.audit.intern.max-length:128}") int maxLength) {
+		for (String field : fields) {
+			if (field.isBlank())
+				continue;
+			PropertyDescriptor property = BeanUtils.getPropertyDescriptor(Audit.class, field.strip());
+			if (Objects.isNull(property) || property.getPropertyType() != String.class
+					|| Objects.isNull(property.getReadMethod()) || Objects.isNull(property.getWriteMethod())) {
+				Log.error(this.getClass().getSimpleName(), "AuditDecoder",
+						"config.audit.intern.fields: %s is not a String property of %s, it is not interned",
+						field.strip(), Audit.class.getName());
+				continue;
+			}
+			this.fields.add(property);
+		}
+		this.capacity = Math.max(0, capacity);
+		this.maxLength = maxLength;
+		this.gson = g.newBuilder().registerTypeAdapterFactory(new InterningAdapterFactory()).create();
+		Gauge.builder("audit.intern.size", table, Map::size).register(registry);
+	}
+
+	/**
+	 * Method to decode an audit payload
+	 *
+	 * @param json Audit JSON payload
+	 * @return Decoded {@link Audit} entity
+	 */
+	public Audit decode(String json) {
+		return gson.fromJson(json, Audit.class);
+	}
+
+	/**
+	 * Method to get the shared instance of a value
+	 *
+	 * @param value Decoded value
+	 * @return Interned instance, or the value itself once the table is full
+	 */
+	String intern(String value) {
+		String interned = table.get(value);
+		if (Objects.nonNull(interned))
+			return interned;
+		if (table.size() >= capacity)
+			return value;
+		interned = table.putIfAbsent(value, value);
+		return Objects.isNull(interned) ? value : interned;
+	}
+
+	/**
+	 * Method to replace the configured properties of a decoded audit by their
+	 * interned instances
+	 *
+	 * @param audit Decoded {@link Audit} entity
+	 */
+	private void internFields(Audit audit) {
+		try {
+			for (PropertyDescriptor field : fields) {
+				String value = (String) field.getReadMethod().invoke(audit);
+				if (Objects.nonNull(value) && value.length() <= maxLength)
+					field.getWriteMethod().invoke(audit, intern(value));
+			}
+		} catch (ReflectiveOperationException e) {
+			throw new JsonParseException("Exception occurred while interning audit fields: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * {@link TypeAdapterFactory} decoding {@link Audit} with the default adapter
+	 * and interning the configured properties of the result
+	 */
+	private final class InterningAdapterFactory implements TypeAdapterFactory {
+
+		/**
+		 * Method to create the adapter of {@link Audit}
+		 *
+		 * @param gson {@link Gson} object the adapter is created for
+		 * @param type Type to adapt
+		 * @return Interning adapter for {@link Audit}, {@code null} for other types
+		 */
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+			if (type.getRawType() != Audit.class)
+				return null;
+
+			TypeAdapter<Audit> delegate = (TypeAdapter<Audit>) gson.getDelegateAdapter(this, type);
+			return (TypeAdapter<T>) new TypeAdapter<Audit>() {
+
+				@Override
+				public Audit read(JsonReader in) throws IOException {
+					Audit audit = delegate.read(in);
+					if (Objects.nonNull(audit))
+						internFields(audit);
+					return audit;
+				}
+
+				@Override
+				public void write(JsonWriter out, Audit audit) throws IOException {
+					delegate.write(out, audit);
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,548 @@
+package com.audit.utility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.utilities.exceptions.ConfigException;
+import com.utilities.log.Log;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Durable, append-only journal of audits on the local disk, used while the
+ * data base is unavailable.
+ *
+ * <p>
+ * The journal is a sequence of segment files of at most
+ * {@code config.journal.segment-bytes} in {@code config.journal.dir}. Every
+ * entry is framed by its length and its CRC-32C, so a torn write at the end of
+ * a segment after a crash is detected and ignored. A write that fails half way
+ * is cut off the segment again, or the segment is closed when it cannot be cut,
+ * so a torn frame never hides the entries appended after it. Appends are made
+ * durable by a group commit: a flusher thread calls {@code fsync} every
+ * {@code config.journal.fsync-interval-ms} for everything appended since the
+ * last call. {@link #append(String)} returns once its entry is written, with a
+ * future completed once the entry is on disk, so a producer can append many
+ * entries and wait for a single {@code fsync}.
+ * </p>
+ *
+ * <p>
+ * Entries are read back in append order by a single drainer with
+ * {@link #peek(int)} and confirmed with {@link #acknowledge()}, or
+ * {@link #acknowledge(int)} when only the first of them are stored. The drain
+ * position is kept in a checkpoint file and drained segments are deleted, so a
+ * restart re-reads at most the last unacknowledged batch. Anything after the
+ * last valid entry of a segment is a torn write of an entry that was never
+ * acknowledged to its producer, and is dropped with the segment.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Component
+public class AuditJournal {
+
+	/**
+	 * File name prefix of the segments
+	 */
+	private static final String SEGMENT_PREFIX = "audit-";
+
+	/**
+	 * File name suffix of the segments
+	 */
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	/**
+	 * File name of the drain checkpoint
+	 */
+	private static final String CHECKPOINT = "drain.checkpoint";
+
+	/**
+	 * Size of the length and checksum in front of every entry
+	 */
+	private static final int FRAME_HEADER_BYTES = 8;
+
+	/**
+	 * Directory of the journal
+	 */
+	private final Path dir;
+
+	/**
+	 * Size in bytes after which a new segment is started
+	 */
+	private final long segmentBytes;
+
+	/**
+	 * Milliseconds between two group commits
+	 */
+	private final long fsyncIntervalMs;
+
+	/**
+	 * Lock guarding the active segment
+	 */
+	private final Object writeLock = new Object();
+
+	/**
+	 * Number of entries appended and not yet acknowledged
+	 */
+	private final AtomicLong pending = new AtomicLong();
+
+	/**
+	 * Flusher thread performing the group commits
+	 */
+	private final Thread flusher;
+
+	/**
+	 * Sequence number of the active segment
+	 */
+	private long activeSeq;
+
+	/**
+	 * Active segment the entries are appended to
+	 */
+	private FileChannel active;
+
+	/**
+	 * Bytes written to the active segment
+	 */
+	private long activeSize;
+
+	/**
+	 * Futures of the entries appended since the last group commit
+	 */
+	private List<CompletableFuture<Void>> unsynced = new ArrayList<>();
+
+	/**
+	 * Sequence number of the segment being drained
+	 */
+	private long drainSeq;
+
+	/**
+	 * Position of the next entry to drain in its segment
+	 */
+	private long drainPos;
+
+	/**
+	 * Segment of the entries returned by the last {@link #peek(int)}
+	 */
+	private long peekedSeq;
+
+	/**
+	 * Position after each entry returned by the last {@link #peek(int)}
+	 */
+	private long[] peeked;
+
+	/**
+	 * Flag to stop the flusher
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * Constructor to open the journal, count the entries left by an earlier run
+	 * and start the flusher
+	 *
+	 * @param dir             Directory of the journal
+	 * @param segmentBytes    Size in bytes after which a new segment is started
+	 * @param fsyncIntervalMs Milliseconds between two group commits
+	 */
+	public AuditJournal(@Value("${config.journal.dir:journal}") String dir,
+			@Value("${config.journal.segment-bytes:67108864}") long segmentBytes,
+			@Value("${config.journal.fsync-interval-ms:5}") long fsyncIntervalMs) {
+		this.dir = Path.of(dir);
+		this.segmentBytes = segmentBytes;
+		this.fsyncIntervalMs = Math.max(1, fsyncIntervalMs);
+		try {
+			Files.createDirectories(this.dir);
+			loadCheckpoint();
+			TreeMap<Long, Path> segments = segments();
+			if (!segments.isEmpty() && segments.firstKey() > drainSeq) {
+				drainSeq = segments.firstKey();
+				drainPos = 0;
+			}
+			// Never append to a segment of an earlier run, it may end in a torn write
+			activeSeq = segments.isEmpty() ? Math.max(1, drainSeq) : segments.lastKey() + 1;
+			active = FileChannel.open(segment(activeSeq), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+			scan(entry -> pending.incrementAndGet());
+		} catch (IOException e) {
+			throw ConfigException.getInstance("Exception occurred while opening audit journal: " + e.getMessage());
+		}
+
+		if (pending.get() > 0)
+			Log.info(this.getClass().getSimpleName(), "AuditJournal", "%s audits left in the journal %s",
+					pending.get(), this.dir.toAbsolutePath());
+
+		flusher = new Thread(this::flush, "audit-journal-flusher");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * Method to append an entry, returning once it is written
+	 *
+	 * @param entry Entry to append
+	 * @return Future completed once the entry is on disk, or completed
+	 *         exceptionally if the {@code fsync} fails
+	 * @throws IOException If the entry cannot be written
+	 */
+	public CompletableFuture<Void> append(String entry) throws IOException {
+		byte[] payload = entry.getBytes(StandardCharsets.UTF_8);
+		CRC32C crc = new CRC32C();
+		crc.update(payload);
+		ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+		frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+		CompletableFuture<Void> durable = new CompletableFuture<>();
+		synchronized (writeLock) {
+			if (activeSize > 0 && activeSize + frame.remaining() > segmentBytes)
+				roll();
+			long frameStart = activeSize;
+			try {
+				while (frame.hasRemaining())
+					activeSize += active.write(frame);
+			} catch (IOException e) {
+				discardFrame(frameStart, e);
+				throw e;
+			}
+			unsynced.add(durable);
+			pending.incrementAndGet();
+		}
+		return durable;
+	}
+
+	/**
+	 * Method to check whether entries are waiting to be drained
+	 *
+	 * @return {@code true} if no entry is waiting
+	 */
+	public boolean isEmpty() {
+		return pending.get() == 0;
+	}
+
+	/**
+	 * Method to get the number of entries waiting to be drained
+	 *
+	 * @return Entries appended and not yet acknowledged
+	 */
+	public long pending() {
+		return pending.get();
+	}
+
+	/**
+	 * Method to read the oldest entries without removing them. Calling it again
+	 * before {@link #acknowledge()} returns the same entries.
+	 *
+	 * @param max Maximum number of entries to read
+	 * @return Oldest entries in append order, at most one segment at a time
+	 * @throws IOException If the journal cannot be read
+	 */
+	public synchronized List<String> peek(int max) throws IOException {
+		while (true) {
+			if (drainSeq >= activeSeq) {
+				synchronized (writeLock) {
+					if (activeSize == 0)
+						return List.of();
+					roll();
+				}
+			}
+
+			List<String> entries = new ArrayList<>();
+			List<Long> ends = new ArrayList<>();
+			readSegment(drainSeq, drainPos, max, (entry, end) -> {
+				entries.add(entry);
+				ends.add(end);
+			});
+			if (!entries.isEmpty()) {
+				peekedSeq = drainSeq;
+				peeked = ends.stream().mapToLong(Long::longValue).toArray();
+				return entries;
+			}
+
+			// The closed segment is drained; anything left in it is a torn write
+			Files.deleteIfExists(segment(drainSeq));
+			drainSeq++;
+			drainPos = 0;
+			saveCheckpoint();
+		}
+	}
+
+	/**
+	 * Method to remove the entries returned by the last {@link #peek(int)}, once
+	 * they are safely stored elsewhere
+	 *
+	 * @throws IOException If the checkpoint cannot be written
+	 */
+	public synchronized void acknowledge() throws IOException {
+		acknowledge(Objects.isNull(peeked) ? 0 : peeked.length);
+	}
+
+	/**
+	 * Method to remove the first entries returned by the last {@link #peek(int)},
+	 * once they are safely stored elsewhere. The next {@link #peek(int)} starts
+	 * with the entries that were not acknowledged.
+	 *
+	 * @param count Number of entries to remove
+	 * @throws IOException If the checkpoint cannot be written
+	 */
+	public synchronized void acknowledge(int count) throws IOException {
+		if (Objects.isNull(peeked) || count <= 0)
+			return;
+
+		count = Math.min(count, peeked.length);
+		drainSeq = peekedSeq;
+		drainPos = peeked[count - 1];
+		pending.addAndGet(-count);
+		peeked = null;
+		saveCheckpoint();
+	}
+
+	/**
+	 * Method to visit every entry waiting to be drained, in append order
+	 *
+	 * @param action Action applied to each entry
+	 * @throws IOException If the journal cannot be read
+	 */
+	public synchronized void scan(Consumer<String> action) throws IOException {
+		for (Map.Entry<Long, Path> segment : segments().entrySet()) {
+			if (segment.getKey() < drainSeq || segment.getKey() >= activeSeq)
+				continue;
+			readSegment(segment.getKey(), segment.getKey() == drainSeq ? drainPos : 0, Integer.MAX_VALUE,
+					(entry, end) -> action.accept(entry));
+		}
+	}
+
+	/**
+	 * Method to stop the flusher and close the active segment
+	 */
+	@PreDestroy
+	public void close() {
+		closed = true;
+		flusher.interrupt();
+		synchronized (writeLock) {
+			try {
+				active.force(false);
+				active.close();
+				unsynced.forEach(durable -> durable.complete(null));
+			} catch (IOException e) {
+				Log.error(this.getClass().getSimpleName(), "close", "closing audit journal failed: %s",
+						e.getMessage());
+				IOException failure = new IOException("Audit journal closed before its fsync", e);
+				unsynced.forEach(durable -> durable.completeExceptionally(failure));
+			}
+			unsynced = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Method run by the flusher thread, syncing the appended bytes to disk
+	 */
+	private void flush() {
+		while (!closed) {
+			try {
+				Thread.sleep(fsyncIntervalMs);
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			List<CompletableFuture<Void>> batch;
+			FileChannel channel;
+			synchronized (writeLock) {
+				if (unsynced.isEmpty())
+					continue;
+				batch = unsynced;
+				unsynced = new ArrayList<>();
+				channel = active;
+			}
+
+			try {
+				channel.force(false);
+			} catch (ClosedChannelException e) {
+				// Rolled meanwhile; the closed segment was synced by the roll
+			} catch (IOException e) {
+				IOException failure = new IOException("Audit journal fsync failed", e);
+				batch.forEach(durable -> durable.completeExceptionally(failure));
+				continue;
+			}
+			batch.forEach(durable -> durable.complete(null));
+		}
+	}
+
+	/**
+	 * Method to close the active segment and start a new one. Must be called
+	 * holding {@link #writeLock}. The active segment is left unchanged when the
+	 * new one cannot be created.
+	 *
+	 * @throws IOException If the segments cannot be synced or created
+	 */
+	private void roll() throws IOException {
+		FileChannel next = FileChannel.open(segment(activeSeq + 1), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.WRITE);
+		try {
+			if (active.isOpen()) {
+				active.force(false);
+				active.close();
+			}
+		} catch (IOException e) {
+			next.close();
+			Files.deleteIfExists(segment(activeSeq + 1));
+			throw e;
+		}
+		activeSeq++;
+		activeSize = 0;
+		active = next;
+	}
+
+	/**
+	 * Method to remove the part of a frame a failed write left in the active
+	 * segment, or to close the segment after the frame when it cannot be cut off.
+	 * Must be called holding {@link #writeLock}.
+	 *
+	 * @param frameStart Position of the frame in the active segment
+	 * @param failure    Failure of the write, collecting the failures of the
+	 *                   clean up
+	 */
+	private void discardFrame(long frameStart, IOException failure) {
+		try {
+			active.truncate(frameStart);
+			active.position(frameStart);
+			activeSize = frameStart;
+			return;
+		} catch (IOException e) {
+			failure.addSuppressed(e);
+		}
+
+		// The torn frame stays at the end of a closed segment, where the readers stop anyway
+		try {
+			roll();
+		} catch (IOException e) {
+			failure.addSuppressed(e);
+			Log.error(this.getClass().getSimpleName(), "discardFrame",
+					"torn entry left in %s at %s: %s", segment(activeSeq), frameStart, e.getMessage());
+		}
+	}
+
+	/**
+	 * Method to read the valid entries of a segment from a position
+	 *
+	 * @param seq    Sequence number of the segment
+	 * @param from   Position of the first entry
+	 * @param max    Maximum number of entries to read
+	 * @param action Action applied to each entry and the position after it
+	 * @return Position after the last entry read
+	 * @throws IOException If the segment cannot be read
+	 */
+	private long readSegment(long seq, long from, int max, ObjLongConsumer<String> action) throws IOException {
+		Path segment = segment(seq);
+		if (!Files.exists(segment))
+			return from;
+
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			long pos = from;
+			long size = channel.size();
+			ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+			for (int read = 0; read < max && pos + FRAME_HEADER_BYTES <= size; read++) {
+				header.clear();
+				channel.read(header, pos);
+				header.flip();
+				int length = header.getInt();
+				int checksum = header.getInt();
+				if (length < 0 || pos + FRAME_HEADER_BYTES + length > size)
+					break;
+
+				ByteBuffer payload = ByteBuffer.allocate(length);
+				while (payload.hasRemaining())
+					if (channel.read(payload, pos + FRAME_HEADER_BYTES + payload.position()) < 0)
+						break;
+				CRC32C crc = new CRC32C();
+				crc.update(payload.array());
+				if ((int) crc.getValue() != checksum) {
+					Log.error(this.getClass().getSimpleName(), "readSegment",
+							"corrupt entry in %s at %s, skipping the rest of the segment", segment, pos);
+					break;
+				}
+
+				pos += FRAME_HEADER_BYTES + length;
+				action.accept(new String(payload.array(), StandardCharsets.UTF_8), pos);
+			}
+			return pos;
+		}
+	}
+
+	/**
+	 * Method to list the segments of the journal
+	 *
+	 * @return Segment files by sequence number
+	 * @throws IOException If the directory cannot be listed
+	 */
+	private TreeMap<Long, Path> segments() throws IOException {
+		TreeMap<Long, Path> segments = new TreeMap<>();
+		try (Stream<Path> files = Files.list(dir)) {
+			files.forEach(file -> {
+				String name = file.getFileName().toString();
+				if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+					segments.put(Long.parseLong(
+							name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+			});
+		}
+		return segments;
+	}
+
+	/**
+	 * Method to get the file of a segment
+	 *
+	 * @param seq Sequence number of the segment
+	 * @return Path of the segment
+	 */
+	private Path segment(long seq) {
+		return dir.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+	}
+
+	/**
+	 * Method to load the drain position written by an earlier run
+	 *
+	 * @throws IOException If the checkpoint cannot be read
+	 */
+	private void loadCheckpoint() throws IOException {
+		Path checkpoint = dir.resolve(CHECKPOINT);
+		if (!Files.exists(checkpoint))
+			return;
+		String[] position = Files.readString(checkpoint, StandardCharsets.UTF_8).trim().split(" ");
+		drainSeq = Long.parseLong(position[0]);
+		drainPos = Long.parseLong(position[1]);
+	}
+
+	/**
+	 * Method to write the drain position atomically
+	 *
+	 * @throws IOException If the checkpoint cannot be written
+	 */
+	private void saveCheckpoint() throws IOException {
+		Path temp = dir.resolve(CHECKPOINT + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.wrap((drainSeq + " " + drainPos).getBytes(StandardCharsets.UTF_8)));
+			channel.force(false);
+		}
+		Files.move(temp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+}
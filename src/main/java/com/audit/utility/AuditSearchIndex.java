@@ -0,0 +1,288 @@
+package com.audit.utility;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.model.entity.Audit;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class keeps a Lucene full-text index of the audits in
+ * {@code config.search.dir} on local disk.
+ *
+ * <p>
+ * Every top-level field of an audit with a scalar value, including the request
+ * and response bodies, is indexed as a text field of the same name, and all of
+ * them together as the {@code all} field searched by default. Only the audit id
+ * is stored; the audits themselves are read from the data base. Audits are
+ * indexed by id, so indexing an audit again replaces it.
+ * </p>
+ *
+ * <p>
+ * Queries use the classic Lucene syntax without its expensive forms: regular
+ * expression and fuzzy queries are rejected, and a wildcard or prefix term
+ * needs at least {@value #MIN_WILDCARD_PREFIX} characters before its first
+ * wildcard, so a single query cannot enumerate the whole term dictionary.
+ * </p>
+ *
+ * <p>
+ * New documents become searchable at the next {@link #refresh()}, without a
+ * commit; {@link #commit(long)} makes them durable together with the highest
+ * audit id indexed, from which indexing resumes after a restart. Anything
+ * indexed after the last commit is indexed again.
+ * </p>
+ *
+ * @see <a href = "https://lucene.apache.org/core/9_12_1/index.html"> Lucene</a>
+ * @author Kabir Akware
+ */
+@Component
+public class AuditSearchIndex {
+
+	/**
+	 * Least number of characters in front of the first wildcard of a term
+	 */
+	private static final int MIN_WILDCARD_PREFIX = 3;
+
+	/**
+	 * Field holding the audit id
+	 */
+	private static final String ID = "id";
+
+	/**
+	 * Doc values field the results are sorted by, newest first
+	 */
+	private static final String ID_ORDER = "id_order";
+
+	/**
+	 * Field holding every indexed value, searched by default
+	 */
+	private static final String ALL = "all";
+
+	/**
+	 * Commit user data key of the highest audit id indexed
+	 */
+	private static final String INDEXED_ID = "indexedId";
+
+	/**
+	 * {@link Gson} object used to read the fields of the audits
+	 */
+	private final Gson g;
+
+	/**
+	 * {@link Analyzer} of the indexed text and the queries
+	 */
+	private final Analyzer analyzer = new StandardAnalyzer();
+
+	/**
+	 * {@link Directory} of the index
+	 */
+	private final Directory directory;
+
+	/**
+	 * {@link IndexWriter} of the index
+	 */
+	private final IndexWriter writer;
+
+	/**
+	 * {@link SearcherManager} sharing the near-real-time searchers
+	 */
+	private final SearcherManager searchers;
+
+	/**
+	 * Constructor to open, or create, the index
+	 *
+	 * @param g   {@link Gson} object used to read the fields of the audits
+	 * @param dir Directory of the index
+	 * @throws IOException If the index cannot be opened
+	 */
+	public AuditSearchIndex(Gson g, @Value("${config.search.dir:search-index}") String dir) throws IOException {
+		this.g = g;
+		this.directory = FSDirectory.open(Path.of(dir));
+		this.writer = new IndexWriter(directory,
+				new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+		this.searchers = new SearcherManager(writer, null);
+	}
+
+	/**
+	 * Method to index audits, replacing the ones already indexed
+	 *
+	 * @param audits Audits to index
+	 * @throws IOException If the index cannot be written
+	 */
+	public void index(List<Audit> audits) throws IOException {
+		for (Audit audit : audits) {
+			Document document = new Document();
+			document.add(new StringField(ID, String.valueOf(audit.getId()), Field.Store.YES));
+			document.add(new NumericDocValuesField(ID_ORDER, audit.getId()));
+			for (Map.Entry<String, JsonElement> field : g.toJsonTree(audit).getAsJsonObject().entrySet()) {
+				if (ID.equals(field.getKey()) || !field.getValue().isJsonPrimitive())
+					continue;
+				String value = field.getValue().getAsString();
+				document.add(new TextField(field.getKey(), value, Field.Store.NO));
+				document.add(new TextField(ALL, value, Field.Store.NO));
+			}
+			writer.updateDocument(new Term(ID, String.valueOf(audit.getId())), document);
+		}
+	}
+
+	/**
+	 * Method to search the index
+	 *
+	 * @param query Lucene query, e.g. {@code "card declined"} or
+	 *              {@code refNo:REF123 AND response:timeout}
+	 * @param limit Maximum number of audits to return
+	 * @return Ids of the matching audits, newest first
+	 * @throws ParseException If the query is invalid
+	 * @throws IOException    If the index cannot be read
+	 */
+	public List<Integer> search(String query, int limit) throws ParseException, IOException {
+		QueryParser parser = new RestrictedQueryParser(ALL, analyzer);
+		parser.setAllowLeadingWildcard(false);
+		IndexSearcher searcher = searchers.acquire();
+		try {
+			ScoreDoc[] hits = searcher.search(parser.parse(query), limit,
+					new Sort(new SortField(ID_ORDER, SortField.Type.LONG, true))).scoreDocs;
+			StoredFields storedFields = searcher.storedFields();
+			List<Integer> ids = new ArrayList<>(hits.length);
+			for (ScoreDoc hit : hits)
+				ids.add(Integer.valueOf(storedFields.document(hit.doc).get(ID)));
+			return ids;
+		} finally {
+			searchers.release(searcher);
+		}
+	}
+
+	/**
+	 * Method to make the documents indexed so far searchable
+	 *
+	 * @throws IOException If the index cannot be read
+	 */
+	public void refresh() throws IOException {
+		searchers.maybeRefresh();
+	}
+
+	/**
+	 * Method to make the documents indexed so far durable
+	 *
+	 * @param indexedId Highest audit id indexed
+	 * @throws IOException If the index cannot be written
+	 */
+	public void commit(long indexedId) throws IOException {
+		writer.setLiveCommitData(Map.of(INDEXED_ID, String.valueOf(indexedId)).entrySet());
+		writer.commit();
+	}
+
+	/**
+	 * Method to get the highest audit id of the last commit
+	 *
+	 * @return Highest audit id indexed, or {@code 0} for a new index
+	 */
+	public long indexedId() {
+		Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+		if (Objects.nonNull(commitData))
+			for (Map.Entry<String, String> entry : commitData)
+				if (INDEXED_ID.equals(entry.getKey()))
+					return Long.parseLong(entry.getValue());
+		return 0;
+	}
+
+	/**
+	 * Method to close the index
+	 *
+	 * @throws IOException If the index cannot be closed
+	 */
+	@PreDestroy
+	public void close() throws IOException {
+		searchers.close();
+		writer.close();
+		directory.close();
+		analyzer.close();
+	}
+
+	/**
+	 * {@link QueryParser} rejecting the query forms whose cost grows with the
+	 * size of the index
+	 */
+	private static final class RestrictedQueryParser extends QueryParser {
+
+		/**
+		 * Constructor to create the parser
+		 *
+		 * @param field    Field searched by default
+		 * @param analyzer {@link Analyzer} of the query terms
+		 */
+		private RestrictedQueryParser(String field, Analyzer analyzer) {
+			super(field, analyzer);
+		}
+
+		/**
+		 * Method rejecting regular expression queries
+		 */
+		@Override
+		protected Query getRegexpQuery(String field, String termStr) throws ParseException {
+			throw new ParseException("Regular expression queries are not supported: /" + termStr + "/");
+		}
+
+		/**
+		 * Method rejecting fuzzy queries
+		 */
+		@Override
+		protected Query getFuzzyQuery(String field, String termStr, float minSimilarity) throws ParseException {
+			throw new ParseException("Fuzzy queries are not supported: " + termStr + "~");
+		}
+
+		/**
+		 * Method rejecting wildcard queries with a short prefix
+		 */
+		@Override
+		protected Query getWildcardQuery(String field, String termStr) throws ParseException {
+			int wildcard = termStr.replace('?', '*').indexOf('*');
+			if (wildcard >= 0 && wildcard < MIN_WILDCARD_PREFIX)
+				throw new ParseException("Wildcard terms need " + MIN_WILDCARD_PREFIX
+						+ " characters before the first wildcard: " + termStr);
+			return super.getWildcardQuery(field, termStr);
+		}
+
+		/**
+		 * Method rejecting prefix queries with a short prefix
+		 */
+		@Override
+		protected Query getPrefixQuery(String field, String termStr) throws ParseException {
+			if (termStr.length() < MIN_WILDCARD_PREFIX)
+				throw new ParseException(
+						"Prefix terms need " + MIN_WILDCARD_PREFIX + " characters before the wildcard: " + termStr);
+			return super.getPrefixQuery(field, termStr);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.audit.utility;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.utilities.exceptions.ConfigException;
+
+/**
+ * This class caches successfully verified credentials, so that the BCrypt
+ * verification is only paid on a cache miss.
+ *
+ * <p>
+ * Entries are keyed by an HMAC-SHA256 of the user name and password, computed
+ * with a random key generated at start up. The password is therefore never held
+ * in memory, and the key cannot be reproduced outside this instance. Entries
+ * expire after {@code config.auth.cache.ttl-seconds} and the cache is bounded
+ * by {@code config.auth.cache.max-size}.
+ * </p>
+ *
+ * <p>
+ * Entries of a user must be invalidated with {@link #invalidate(String)} when
+ * the password or authorities of the user change. The cache is held by each
+ * instance: a change made on one replica reaches the caches of the others
+ * through the revocation broadcast of {@link com.audit.services.TokenService},
+ * see {@link com.audit.services.TokenService#revokeAll(String)}.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Component
+public class CredentialCache {
+
+	/**
+	 * HMAC algorithm used to derive the cache key
+	 */
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+	/**
+	 * Verified authentications keyed by the HMAC of their credentials
+	 */
+	private final Cache<String, Authentication> verified;
+
+	/**
+	 * Generation advanced on every invalidation, so that a verification racing
+	 * with an invalidation does not cache stale credentials
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Per-thread {@link Mac} instances, as {@link Mac} is not thread safe
+	 */
+	private final ThreadLocal<Mac> mac;
+
+	/**
+	 * Constructor to create the cache with the configured expiry and size
+	 *
+	 * @param ttlSeconds Time in seconds for which a verified credential is trusted
+	 * @param maxSize    Maximum number of verified credentials kept in memory
+	 */
+	public CredentialCache(@Value("${config.auth.cache.ttl-seconds:60}") long ttlSeconds,
+			@Value("${config.auth.cache.max-size:10000}") long maxSize) {
+		this.verified = ttlSeconds <= 0 ? null
+				: Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(ttlSeconds)).maximumSize(maxSize).build();
+
+		byte[] key = new byte[32];
+		new SecureRandom().nextBytes(key);
+		SecretKeySpec keySpec = new SecretKeySpec(key, HMAC_ALGORITHM);
+		this.mac = ThreadLocal.withInitial(() -> {
+			try {
+				Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+				instance.init(keySpec);
+				return instance;
+			} catch (GeneralSecurityException e) {
+				throw ConfigException
+						.getInstance("Exception occurred while initializing credential cache: " + e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Method to authenticate the request from the cache, delegating to the given
+	 * provider on a cache miss
+	 *
+	 * @param request  {@link Authentication} request carrying the credentials
+	 * @param delegate {@link AuthenticationProvider} performing the verification
+	 * @return Authenticated {@link Authentication}, or {@code null} if the
+	 *         delegate cannot authenticate the request
+	 */
+	public Authentication authenticate(Authentication request, AuthenticationProvider delegate) {
+		if (Objects.isNull(verified) || Objects.isNull(request.getCredentials()))
+			return delegate.authenticate(request);
+
+		String key = key(request.getName(), request.getCredentials().toString());
+		Authentication cached = verified.getIfPresent(key);
+		if (Objects.isNull(cached)) {
+			long current = generation.get();
+			cached = delegate.authenticate(request);
+			if (Objects.isNull(cached))
+				return null;
+			if (generation.get() == current)
+				verified.put(key, cached);
+		}
+
+		UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken
+				.authenticated(cached.getPrincipal(), null, cached.getAuthorities());
+		result.setDetails(request.getDetails());
+		return result;
+	}
+
+	/**
+	 * Method to drop every verified credential of the user
+	 *
+	 * <p>
+	 * Only the cache of this instance is invalidated. Callers changing the
+	 * password or authorities of a user also revoke the tokens of the user with
+	 * {@link com.audit.services.TokenService#revokeAll(String)}, whose broadcast
+	 * invalidates the caches of the other instances; until it is received they
+	 * keep the old credentials for at most {@code config.auth.cache.ttl-seconds}.
+	 * </p>
+	 *
+	 * @param username User name whose password or authorities changed
+	 */
+	public void invalidate(String username) {
+		generation.incrementAndGet();
+		if (Objects.nonNull(verified))
+			verified.asMap().values().removeIf(auth -> auth.getName().equals(username));
+	}
+
+	/**
+	 * Method to derive the cache key from the credentials
+	 *
+	 * @param username User name
+	 * @param password Raw password
+	 * @return Base64 encoded HMAC of the credentials
+	 */
+	private String key(String username, String password) {
+		Mac instance = mac.get();
+		instance.update(username.getBytes(StandardCharsets.UTF_8));
+		instance.update((byte) 0);
+		return Base64.getEncoder().encodeToString(instance.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+	}
+}
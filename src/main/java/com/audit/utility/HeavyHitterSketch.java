@@ -0,0 +1,266 @@
+package com.audit.utility;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class finds the reference numbers seen most often by the ingest path
+ * over a sliding window, such as the bursts of a retry storm, in a fixed
+ * amount of memory.
+ *
+ * <p>
+ * The window of {@code config.heavy-hitters.window-epochs} epochs of
+ * {@code config.heavy-hitters.epoch-seconds} each is kept as a ring of
+ * Space-Saving summaries, one per epoch, of
+ * {@code config.heavy-hitters.capacity} counters each. A summary counts the
+ * first {@code capacity} distinct reference numbers of its epoch exactly; a
+ * reference number arriving when all counters are taken replaces the one with
+ * the lowest count and inherits that count as its error. The memory is
+ * therefore bounded by {@code window-epochs * capacity} counters, however many
+ * distinct reference numbers are seen, and the summary of the oldest epoch is
+ * reset when the window slides past it.
+ * </p>
+ *
+ * <p>
+ * The top-K over the window adds up the summaries. The count of a reference
+ * number is an upper bound of its true count, and its error is the most the
+ * count can overestimate it: a reference number missing from a full summary may
+ * have been evicted from it, so the lowest count of that summary is added to
+ * both. Any reference number seen more than {@code n / capacity} times in an
+ * epoch of {@code n} audits is guaranteed to be tracked for that epoch.
+ * </p>
+ *
+ * <p>
+ * Each epoch is locked on its own while it is updated; consumer threads only
+ * ever write the current epoch.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Component
+public class HeavyHitterSketch {
+
+	/**
+	 * Approximate count of a reference number over the window
+	 *
+	 * @param refNo Reference number
+	 * @param count Upper bound of the number of audits with the reference number
+	 * @param error Most the count can exceed the true number of audits
+	 */
+	public record HeavyHitter(String refNo, long count, long error) {
+	}
+
+	/**
+	 * Space-Saving counter of a reference number
+	 */
+	private static final class Counter {
+
+		/**
+		 * Reference number
+		 */
+		private final String refNo;
+
+		/**
+		 * Count, an upper bound of the true count
+		 */
+		private long count;
+
+		/**
+		 * Most the count can exceed the true count
+		 */
+		private long error;
+
+		/**
+		 * Constructor to create a counter
+		 *
+		 * @param refNo Reference number
+		 * @param count Initial count
+		 * @param error Initial error
+		 */
+		private Counter(String refNo, long count, long error) {
+			this.refNo = refNo;
+			this.count = count;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * Space-Saving summary of one epoch
+	 */
+	private static final class Epoch {
+
+		/**
+		 * Order of the counters, lowest count first
+		 */
+		private static final Comparator<Counter> ORDER = Comparator.<Counter>comparingLong(counter -> counter.count)
+				.thenComparing(counter -> counter.refNo);
+
+		/**
+		 * Counters by reference number
+		 */
+		private final Map<String, Counter> counters;
+
+		/**
+		 * Counters ordered by count, to find the one to evict
+		 */
+		private final TreeSet<Counter> byCount = new TreeSet<>(ORDER);
+
+		/**
+		 * Number of the epoch this summary holds
+		 */
+		private long number = -1;
+
+		/**
+		 * Constructor to create a summary
+		 *
+		 * @param capacity Number of counters of the summary
+		 */
+		private Epoch(int capacity) {
+			this.counters = new HashMap<>(capacity * 4 / 3 + 1);
+		}
+	}
+
+	/**
+	 * Ring of the summaries of the window
+	 */
+	private final Epoch[] epochs;
+
+	/**
+	 * Number of counters of each summary
+	 */
+	private final int capacity;
+
+	/**
+	 * Length of an epoch in nanoseconds
+	 */
+	private final long epochNanos;
+
+	/**
+	 * {@link System#nanoTime()} at which the first epoch started
+	 */
+	private final long origin = System.nanoTime();
+
+	/**
+	 * Constructor to create the sketch
+	 *
+	 * @param capacity     Number of counters of each epoch
+	 * @param epochSeconds Length of an epoch in seconds
+	 * @param windowEpochs Number of epochs of the window
+	 */
+	public HeavyHitterSketch(@Value("${config.heavy-hitters.capacity:1000}") int capacity,
+			@Value("${config.heavy-hitters.epoch-seconds:60}") long epochSeconds,
+			@Value("${config.heavy-hitters.window-epochs:5}") int windowEpochs) {
+		this.capacity = Math.max(1, capacity);
+		this.epochNanos = TimeUnit.SECONDS.toNanos(Math.max(1, epochSeconds));
+		this.epochs = new Epoch[Math.max(1, windowEpochs)];
+		for (int i = 0; i < epochs.length; i++)
+			epochs[i] = new Epoch(this.capacity);
+	}
+
+	/**
+	 * Method to count an audit of a reference number in the current epoch
+	 *
+	 * @param refNo Reference number of the audit
+	 */
+	public void offer(String refNo) {
+		if (Objects.isNull(refNo))
+			return;
+
+		long number = epochNumber();
+		Epoch epoch = epochs[(int) (number % epochs.length)];
+		synchronized (epoch) {
+			if (epoch.number != number) {
+				epoch.counters.clear();
+				epoch.byCount.clear();
+				epoch.number = number;
+			}
+
+			Counter counter = epoch.counters.get(refNo);
+			if (Objects.nonNull(counter)) {
+				epoch.byCount.remove(counter);
+				counter.count++;
+			} else if (epoch.counters.size() < capacity) {
+				counter = new Counter(refNo, 1, 0);
+				epoch.counters.put(refNo, counter);
+			} else {
+				Counter evicted = epoch.byCount.pollFirst();
+				epoch.counters.remove(evicted.refNo);
+				counter = new Counter(refNo, evicted.count + 1, evicted.count);
+				epoch.counters.put(refNo, counter);
+			}
+			epoch.byCount.add(counter);
+		}
+	}
+
+	/**
+	 * Method to get the reference numbers with the highest counts over the window
+	 *
+	 * @param k Number of reference numbers to return, at most the capacity of
+	 *          an epoch
+	 * @return {@link HeavyHitter}s by descending count
+	 */
+	public List<HeavyHitter> top(int k) {
+		long current = epochNumber();
+		List<Map<String, long[]>> snapshots = new ArrayList<>(epochs.length);
+		long[] floors = new long[epochs.length];
+		for (Epoch epoch : epochs) {
+			synchronized (epoch) {
+				if (epoch.number < 0 || current - epoch.number >= epochs.length)
+					continue;
+				Map<String, long[]> snapshot = new HashMap<>(epoch.counters.size() * 4 / 3 + 1);
+				for (Counter counter : epoch.counters.values())
+					snapshot.put(counter.refNo, new long[] { counter.count, counter.error });
+				floors[snapshots.size()] = epoch.counters.size() < capacity ? 0 : epoch.byCount.first().count;
+				snapshots.add(snapshot);
+			}
+		}
+
+		Map<String, HeavyHitter> merged = new HashMap<>();
+		for (Map<String, long[]> snapshot : snapshots)
+			for (String refNo : snapshot.keySet())
+				merged.computeIfAbsent(refNo, key -> merge(key, snapshots, floors));
+
+		return merged.values().stream()
+				.sorted(Comparator.comparingLong(HeavyHitter::count).reversed().thenComparing(HeavyHitter::refNo))
+				.limit(Math.max(0, Math.min(k, capacity))).toList();
+	}
+
+	/**
+	 * Method to get the number of the current epoch
+	 *
+	 * @return Epochs elapsed since the sketch was created
+	 */
+	private long epochNumber() {
+		return (System.nanoTime() - origin) / epochNanos;
+	}
+
+	/**
+	 * Method to add up the counts of a reference number over the summaries of the
+	 * window
+	 *
+	 * @param refNo     Reference number
+	 * @param snapshots Counts and errors of each summary by reference number
+	 * @param floors    Lowest count of each summary, or {@code 0} when it is not
+	 *                  full
+	 * @return {@link HeavyHitter} of the reference number
+	 */
+	private static HeavyHitter merge(String refNo, List<Map<String, long[]>> snapshots, long[] floors) {
+		long count = 0;
+		long error = 0;
+		for (int i = 0; i < snapshots.size(); i++) {
+			long[] counter = snapshots.get(i).get(refNo);
+			count += Objects.isNull(counter) ? floors[i] : counter[0];
+			error += Objects.isNull(counter) ? floors[i] : counter[1];
+		}
+		return new HeavyHitter(refNo, count, error);
+	}
+}
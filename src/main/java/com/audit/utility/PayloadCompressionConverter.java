@@ -0,0 +1,221 @@
+package com.audit.utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.utilities.exceptions.ConfigException;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * JPA {@link AttributeConverter} compressing the large text columns of the
+ * audits, i.e. the request and response bodies, when they are written and
+ * expanding them when they are read. It is applied to the {@code Audit} entity
+ * by {@code META-INF/orm.xml}.
+ *
+ * <p>
+ * A value of at least {@code config.audit.compression.min-chars} characters is
+ * stored as {@code \u0001Z1<dictionary id>:<base64 deflate stream>}, at
+ * {@code config.audit.compression.level}, and only when that is shorter than
+ * the value. Any other value, including every row written before compression
+ * was enabled, is stored and read as it is, so existing rows need no
+ * migration and {@code config.audit.compression.enabled=false} stops
+ * compressing without losing the rows already compressed.
+ * </p>
+ *
+ * <p>
+ * Small JSON bodies compress far better against a preset dictionary holding
+ * their common keys and values. {@code config.audit.compression.dictionaries}
+ * lists dictionary files, e.g. representative payloads concatenated with the
+ * most common ones last, of at most 32 KiB each. The first one is used for
+ * writing, and every one listed can be read; its Adler-32 checksum is the
+ * dictionary id of the values compressed with it, so retiring a dictionary
+ * means keeping it listed after the new one.
+ * </p>
+ *
+ * @see <a href =
+ *      "https://jakarta.ee/specifications/persistence/3.1/apidocs/jakarta.persistence/jakarta/persistence/attributeconverter">
+ *      AttributeConverter</a>
+ * @author Kabir Akware
+ */
+@Component
+@Converter
+public class PayloadCompressionConverter implements AttributeConverter<String, String> {
+
+	/**
+	 * Prefix of a compressed value, followed by the dictionary id and a colon
+	 */
+	private static final String MARKER = "\u0001Z1";
+
+	/**
+	 * {@code true} if values are compressed when written
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Length in characters from which values are compressed
+	 */
+	private final int minChars;
+
+	/**
+	 * Deflate compression level
+	 */
+	private final int level;
+
+	/**
+	 * Dictionary used for writing, empty when there is none
+	 */
+	private final byte[] dictionary;
+
+	/**
+	 * Id of {@link #dictionary}, {@code 0} when there is none
+	 */
+	private final long dictionaryId;
+
+	/**
+	 * Dictionaries that can be read by id
+	 */
+	private final Map<Long, byte[]> dictionaries = new HashMap<>();
+
+	/**
+	 * {@link Deflater} of each thread, reset before each value
+	 */
+	private final ThreadLocal<Deflater> deflaters;
+
+	/**
+	 * {@link Inflater} of each thread, reset before each value
+	 */
+	private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+	/**
+	 * Constructor to create the converter and load the dictionaries
+	 *
+	 * @param enabled         {@code true} if values are compressed when written
+	 * @param minChars        Length in characters from which values are
+	 *                        compressed
+	 * @param level           Deflate compression level, {@code 1} to {@code 9}
+	 * @param dictionaryFiles Dictionary files, the first one used for writing
+	 */
+	public PayloadCompressionConverter(@Value("${config.audit.compression.enabled:true}") boolean enabled,
+			@Value("${config.audit.compression.min-chars:512}") int minChars,
+			@Value("${config.audit.compression.level:1}") int level,
+			@Value("${config.audit.compression.dictionaries:}") List<String> dictionaryFiles) {
+		this.enabled = enabled;
+		this.minChars = Math.max(1, minChars);
+		this.level = Math.max(Deflater.BEST_SPEED, Math.min(level, Deflater.BEST_COMPRESSION));
+		this.deflaters = ThreadLocal.withInitial(() -> new Deflater(this.level));
+
+		byte[] first = new byte[0];
+		for (String file : dictionaryFiles) {
+			if (file.isBlank())
+				continue;
+			try {
+				byte[] bytes = Files.readAllBytes(Path.of(file.strip()));
+				if (first.length == 0)
+					first = bytes;
+				dictionaries.put(id(bytes), bytes);
+			} catch (IOException e) {
+				throw ConfigException
+						.getInstance("Exception occurred while reading compression dictionary " + file + ": " + e);
+			}
+		}
+		this.dictionary = first;
+		this.dictionaryId = first.length == 0 ? 0 : id(first);
+	}
+
+	/**
+	 * Method to compress a value before it is written
+	 *
+	 * @param value Value of the entity attribute
+	 * @return Value of the column
+	 */
+	@Override
+	public String convertToDatabaseColumn(String value) {
+		if (!enabled || Objects.isNull(value) || value.length() < minChars)
+			return value;
+
+		byte[] input = value.getBytes(StandardCharsets.UTF_8);
+		Deflater deflater = deflaters.get();
+		deflater.reset();
+		if (dictionaryId != 0)
+			deflater.setDictionary(dictionary);
+		deflater.setInput(input);
+		deflater.finish();
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 4 + 64);
+		byte[] buffer = new byte[8192];
+		while (!deflater.finished())
+			output.write(buffer, 0, deflater.deflate(buffer));
+
+		String compressed = MARKER + Long.toHexString(dictionaryId) + ":"
+				+ Base64.getEncoder().encodeToString(output.toByteArray());
+		return compressed.length() < value.length() ? compressed : value;
+	}
+
+	/**
+	 * Method to expand a value after it is read
+	 *
+	 * @param column Value of the column
+	 * @return Value of the entity attribute
+	 */
+	@Override
+	public String convertToEntityAttribute(String column) {
+		if (Objects.isNull(column) || !column.startsWith(MARKER))
+			return column;
+
+		int separator = column.indexOf(':', MARKER.length());
+		long id = Long.parseLong(column.substring(MARKER.length(), separator), 16);
+		Inflater inflater = inflaters.get();
+		inflater.reset();
+		inflater.setInput(Base64.getDecoder().decode(column.substring(separator + 1)));
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream(column.length() * 4);
+		byte[] buffer = new byte[8192];
+		try {
+			while (!inflater.finished()) {
+				int length = inflater.inflate(buffer);
+				if (length == 0 && inflater.needsDictionary()) {
+					byte[] bytes = dictionaries.get(id);
+					if (Objects.isNull(bytes))
+						throw new IllegalStateException("Compression dictionary " + Long.toHexString(id)
+								+ " is not listed in config.audit.compression.dictionaries");
+					inflater.setDictionary(bytes);
+				} else if (length == 0 && inflater.needsInput()) {
+					throw new IllegalStateException("Truncated compressed audit payload");
+				}
+				output.write(buffer, 0, length);
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Corrupt compressed audit payload", e);
+		}
+		return output.toString(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Method to get the id of a dictionary
+	 *
+	 * @param dictionary Dictionary bytes
+	 * @return Adler-32 checksum of the dictionary
+	 */
+	private static long id(byte[] dictionary) {
+		Adler32 adler = new Adler32();
+		adler.update(dictionary);
+		return adler.getValue();
+	}
+}
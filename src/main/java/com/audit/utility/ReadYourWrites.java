@@ -0,0 +1,68 @@
+package com.audit.utility;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * This class remembers the reference numbers written recently by the ingest
+ * path, so that reads which must observe them can be pinned to the primary
+ * data base while the replica may still be lagging behind.
+ *
+ * <p>
+ * Stickiness is disabled when {@code config.datasource.replica.sticky-ms} is
+ * {@code 0}.
+ * </p>
+ *
+ * @see com.audit.config.ReplicaRoutingDataSource
+ * @author Kabir Akware
+ */
+@Component
+public class ReadYourWrites {
+
+	/**
+	 * Reference numbers written within the stickiness window
+	 */
+	private final Cache<String, Boolean> recentRefNos;
+
+	/**
+	 * Constructor to create the tracker for the configured stickiness window
+	 *
+	 * @param stickyMillis Time in milliseconds for which a written reference
+	 *                     number is read from the primary data base
+	 * @param maxSize      Maximum number of reference numbers tracked at a time
+	 */
+	public ReadYourWrites(@Value("${config.datasource.replica.sticky-ms:0}") long stickyMillis,
+			@Value("${config.datasource.replica.sticky-max-size:100000}") long maxSize) {
+		this.recentRefNos = stickyMillis <= 0 ? null
+				: Caffeine.newBuilder().expireAfterWrite(Duration.ofMillis(stickyMillis)).maximumSize(maxSize).build();
+	}
+
+	/**
+	 * Method to record that an audit for the reference number has been written
+	 *
+	 * @param refNo Reference number
+	 */
+	public void written(String refNo) {
+		if (Objects.nonNull(recentRefNos) && Objects.nonNull(refNo))
+			recentRefNos.put(refNo, Boolean.TRUE);
+	}
+
+	/**
+	 * Method to check whether the reference number was written within the
+	 * stickiness window
+	 *
+	 * @param refNo Reference number
+	 * @return {@code true} if reads for the reference number must go to the
+	 *         primary data base
+	 */
+	public boolean recentlyWritten(String refNo) {
+		return Objects.nonNull(recentRefNos) && Objects.nonNull(refNo)
+				&& Objects.nonNull(recentRefNos.getIfPresent(refNo));
+	}
+}
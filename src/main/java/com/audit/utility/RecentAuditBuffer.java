@@ -0,0 +1,257 @@
+package com.audit.utility;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.stereotype.Component;
+
+import com.audit.projections.RecentAudit;
+import com.model.entity.Audit;
+import com.model.projections.AuditProjection;
+
+/**
+ * This class keeps the most recently ingested audits as
+ * {@link AuditProjection} objects in a lock-free ring buffer, so that the
+ * first pages of the audit listing can be answered from memory.
+ *
+ * <p>
+ * An entry holds the audit id and a projection backed by a map of the
+ * {@link AuditProjection} properties only, copied from the audit when it is
+ * added, so the buffer never retains the entity or the columns the listing
+ * does not return, such as the request and response bodies.
+ * </p>
+ *
+ * <p>
+ * Writers claim a slot with a single atomic increment and never block each
+ * other or the readers. Since audits may be committed slightly out of id order
+ * by concurrent consumers, readers take a snapshot, remove duplicates and sort
+ * it by id before serving a page.
+ * </p>
+ *
+ * <p>
+ * Consumer instances share one consumer group, so this instance only ingests
+ * the audits of its own partitions; the audits of the other instances arrive by
+ * tailing the data base above the last synchronized id. The buffer remembers
+ * that id, up to which it holds every audit of the data base. Above it, a page
+ * is only served when the ids are contiguous, i.e. no audit persisted by
+ * another instance can be missing from it.
+ * </p>
+ *
+ * <p>
+ * The ring has twice as many slots as the configured capacity, so a tail of up
+ * to {@code capacity} audits can never evict an audit added within the last
+ * {@code capacity} writes.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+@Component
+public class RecentAuditBuffer {
+
+	/**
+	 * Ring buffer entry holding the audit id next to its projection
+	 */
+	private record Entry(long id, AuditProjection projection) {
+	}
+
+	/**
+	 * Factory to project {@link Audit} entities to {@link AuditProjection}
+	 */
+	private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+	/**
+	 * Properties of {@link AuditProjection} copied into an entry
+	 */
+	private final ProjectionInformation projection = projectionFactory
+			.getProjectionInformation(AuditProjection.class);
+
+	/**
+	 * Number of most recent audits the buffer can serve
+	 */
+	private final int capacity;
+
+	/**
+	 * Ring buffer slots
+	 */
+	private final AtomicReferenceArray<Entry> slots;
+
+	/**
+	 * Sequence of the next slot to be written
+	 */
+	private final AtomicLong cursor = new AtomicLong();
+
+	/**
+	 * Highest audit id present in the buffer
+	 */
+	private final AtomicLong newestId = new AtomicLong();
+
+	/**
+	 * Highest audit id up to which the buffer holds every audit of the data base
+	 */
+	private volatile long syncedId;
+
+	/**
+	 * Flag set once the buffer has been seeded from the data base
+	 */
+	private volatile boolean seeded;
+
+	/**
+	 * Constructor to create the buffer with the configured capacity
+	 *
+	 * @param capacity Number of most recent audits to keep in memory
+	 */
+	public RecentAuditBuffer(@Value("${config.audit.recent-buffer-size:100}") int capacity) {
+		this.capacity = capacity;
+		this.slots = new AtomicReferenceArray<>(Math.max(capacity, 1) * 2);
+	}
+
+	/**
+	 * Method to add a freshly persisted audit to the buffer
+	 *
+	 * @param audit Persisted {@link Audit} entity
+	 */
+	public void add(Audit audit) {
+		if (capacity <= 0 || Objects.isNull(audit.getId()))
+			return;
+
+		put(audit.getId(), audit);
+	}
+
+	/**
+	 * Method to add audits read from the data base to the buffer, and advance
+	 * the id up to which it holds every audit of the data base
+	 *
+	 * @param audits   {@link RecentAudit} projections read from the data base
+	 * @param syncedTo Highest audit id up to which every audit of the data base
+	 *                 is now in the buffer
+	 */
+	public void sync(List<RecentAudit> audits, long syncedTo) {
+		if (capacity > 0)
+			audits.forEach(audit -> put(audit.getId(), audit));
+		syncedId = syncedTo;
+		seeded = true;
+	}
+
+	/**
+	 * Method to store an audit in the next slot
+	 *
+	 * @param id     Audit id
+	 * @param source {@link Audit} entity or projection holding the listing
+	 *               columns
+	 */
+	private void put(long id, Object source) {
+		slots.set((int) (cursor.getAndIncrement() % slots.length()), new Entry(id, project(source)));
+		newestId.accumulateAndGet(id, Math::max);
+	}
+
+	/**
+	 * Method to copy the {@link AuditProjection} properties of an audit into a
+	 * map backed projection. An open projection, whose input properties are not
+	 * known, is kept backed by the source.
+	 *
+	 * @param source {@link Audit} entity or projection
+	 * @return {@link AuditProjection} not retaining the source
+	 */
+	private AuditProjection project(Object source) {
+		if (!projection.isClosed())
+			return projectionFactory.createProjection(AuditProjection.class, source);
+
+		BeanWrapper bean = PropertyAccessorFactory.forBeanPropertyAccess(source);
+		Map<String, Object> values = new HashMap<>();
+		for (PropertyDescriptor property : projection.getInputProperties())
+			values.put(property.getName(), bean.getPropertyValue(property.getName()));
+		return projectionFactory.createProjection(AuditProjection.class, values);
+	}
+
+	/**
+	 * Method to check whether the buffer has been seeded from the data base
+	 *
+	 * @return {@code true} once the buffer has been seeded
+	 */
+	public boolean isSeeded() {
+		return seeded;
+	}
+
+	/**
+	 * Method to get the highest audit id present in the buffer
+	 *
+	 * @return Highest audit id
+	 */
+	public long newestId() {
+		return newestId.get();
+	}
+
+	/**
+	 * Method to get the highest audit id up to which the buffer holds every audit
+	 * of the data base
+	 *
+	 * @return Highest synchronized audit id
+	 */
+	public long syncedId() {
+		return syncedId;
+	}
+
+	/**
+	 * Method to get the number of most recent audits the buffer can serve
+	 *
+	 * @return Capacity of the buffer
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Method to fetch a page of the most recent audits from memory.
+	 *
+	 * <p>
+	 * A page is only served when the buffer has been seeded, is not behind the
+	 * highest audit id known to the service, and holds every row of the requested
+	 * page with no gap above the last synchronized id.
+	 * </p>
+	 *
+	 * @param page     Page no to be fetched
+	 * @param limit    Limit of rows in the page
+	 * @param latestId Highest audit id known to the service
+	 * @return Page of {@link AuditProjection}, or empty when the page has to be
+	 *         read from the data base
+	 */
+	public Optional<List<AuditProjection>> page(int page, int limit, long latestId) {
+		long to = ((long) page + 1) * limit;
+		if (!seeded || page < 0 || limit <= 0 || to > capacity || newestId.get() < latestId)
+			return Optional.empty();
+
+		List<Entry> entries = new ArrayList<>(slots.length());
+		Set<Long> ids = new HashSet<>();
+		for (int i = 0; i < slots.length(); i++) {
+			Entry entry = slots.get(i);
+			if (Objects.nonNull(entry) && ids.add(entry.id()))
+				entries.add(entry);
+		}
+		if (entries.size() < to)
+			return Optional.empty();
+
+		entries.sort(Comparator.comparingLong(Entry::id).reversed());
+		// Above the synchronized id only this instance's audits are known; a gap may be another instance's audit
+		long synced = syncedId;
+		for (int i = 1; i < to; i++)
+			if (entries.get(i - 1).id() > synced && entries.get(i).id() != entries.get(i - 1).id() - 1)
+				return Optional.empty();
+		return Optional.of(entries.subList((int) to - limit, (int) to).stream().map(Entry::projection).toList());
+	}
+}
@@ -0,0 +1,77 @@
+package com.audit.utility;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.apache.logging.log4j.util.PropertiesUtil;
+
+/**
+ * Overflow policy of the Log4j2 async logger ring buffer.
+ *
+ * <p>
+ * When the ring buffer is full, events at or below the
+ * {@code log4j2.discardThreshold} level ({@code INFO} by default) are dropped
+ * so the logging thread carries on without waiting, while more severe events
+ * are still enqueued. The number of dropped events is kept in
+ * {@link #discarded()} and published as a metric by
+ * {@link com.audit.config.LoggingConfig}.
+ * </p>
+ *
+ * <p>
+ * Log4j2 instantiates this class through the {@code log4j2.asyncQueueFullPolicy}
+ * property, so it has to keep a public no-argument constructor.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+public class ThresholdDiscardPolicy implements AsyncQueueFullPolicy {
+
+	/**
+	 * Number of events dropped since start up
+	 */
+	private static final LongAdder DISCARDED = new LongAdder();
+
+	/**
+	 * Most severe level that is dropped when the ring buffer is full
+	 */
+	private final Level threshold;
+
+	/**
+	 * Constructor to create the policy with the configured threshold
+	 */
+	public ThresholdDiscardPolicy() {
+		this.threshold = Level.toLevel(
+				PropertiesUtil.getProperties().getStringProperty("log4j2.discardThreshold", "INFO"), Level.INFO);
+	}
+
+	/**
+	 * Method to route an event that does not fit in the full ring buffer
+	 *
+	 * @param backgroundThreadId Id of the thread draining the ring buffer
+	 * @param level              Level of the event
+	 * @return {@link EventRoute} of the event
+	 */
+	@Override
+	public EventRoute getRoute(long backgroundThreadId, Level level) {
+		// The draining thread itself must never wait on the buffer it drains
+		if (Thread.currentThread().getId() == backgroundThreadId)
+			return EventRoute.SYNCHRONOUS;
+
+		if (level.isLessSpecificThan(threshold)) {
+			DISCARDED.increment();
+			return EventRoute.DISCARD;
+		}
+		return EventRoute.ENQUEUE;
+	}
+
+	/**
+	 * Method to get the number of dropped events
+	 *
+	 * @return Events dropped since start up
+	 */
+	public static long discarded() {
+		return DISCARDED.sum();
+	}
+}
@@ -0,0 +1,63 @@
+package com.audit.utility;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented with the generic cell rate algorithm
+ * (GCRA).
+ *
+ * <p>
+ * The whole state of the bucket is a single theoretical arrival time held in
+ * an {@link AtomicLong}, so admitting a permit is one compare-and-set and
+ * concurrent callers never block each other. The bucket admits {@code rate}
+ * permits per second on average and bursts of up to {@code burst} permits.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+public class TokenBucket {
+
+	/**
+	 * Nanoseconds between two permits at the sustained rate
+	 */
+	private final long interval;
+
+	/**
+	 * Nanoseconds the theoretical arrival time may run ahead of the clock
+	 */
+	private final long tolerance;
+
+	/**
+	 * Theoretical arrival time of the next permit in nanoseconds
+	 */
+	private final AtomicLong theoreticalArrival;
+
+	/**
+	 * Constructor to create a bucket for the given rate and burst
+	 *
+	 * @param rate  Permits admitted per second on average, must be positive
+	 * @param burst Maximum number of permits admitted at once
+	 */
+	public TokenBucket(double rate, long burst) {
+		this.interval = Math.max(1L, (long) (1_000_000_000L / rate));
+		this.tolerance = interval * Math.max(0L, burst - 1);
+		this.theoreticalArrival = new AtomicLong(System.nanoTime());
+	}
+
+	/**
+	 * Method to try to take a permit from the bucket
+	 *
+	 * @return {@code true} if the permit was granted
+	 */
+	public boolean tryAcquire() {
+		long now = System.nanoTime();
+		while (true) {
+			long current = theoreticalArrival.get();
+			long start = current - now > 0 ? current : now;
+			if (start - now > tolerance)
+				return false;
+			if (theoreticalArrival.compareAndSet(current, start + interval))
+				return true;
+		}
+	}
+}
@@ -4,15 +4,21 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.audit.exception.AppException;
 import com.audit.services.AuditService;
+import com.audit.services.SearchService;
+import com.audit.utility.HeavyHitterSketch.HeavyHitter;
 import com.model.dto.AuditDto;
 import com.model.projections.AuditProjection;
 
@@ -53,11 +59,23 @@ public class AuditController {
 	 */
 	private AuditService auditService;
 
+	/**
+	 * {@code SearchService} interface parameter
+	 */
+	private SearchService searchService;
+
 	/**
 	 * Fetches the audit logs for end point ({@code /audit})
 	 * 
-	 * @param page  Page no to be fetched
-	 * @param limit Limit of rows to fetch from data base
+	 * <p>
+	 * The response carries an {@code ETag} derived from the highest audit id known
+	 * to the service. A request whose {@code If-None-Match} header matches it is
+	 * answered with {@code 304 Not Modified} without querying the data base.
+	 * </p>
+	 * 
+	 * @param page    Page no to be fetched
+	 * @param limit   Limit of rows to fetch from data base
+	 * @param request {@link WebRequest} used to evaluate the conditional headers
 	 * 
 	 * @return List of {@code Audit} object in JSON
 	 *         ({@code {"timestamp": "yyyy-MM-dd HH:mm:ss.SSSSSS", "code": "code",
@@ -66,11 +84,39 @@ public class AuditController {
 	 */
 	@GetMapping({ "audit", "audit/{page}", "audit/{page}/{limit}" })
 	public ResponseEntity<List<AuditProjection>> audit(@PathVariable(required = false) Integer page,
-			@PathVariable(required = false) Integer limit) throws AppException {
-		return ResponseEntity.ok().body(
+			@PathVariable(required = false) Integer limit, WebRequest request) throws AppException {
+		String eTag = auditService.auditLogsVersion();
+		if (request.checkNotModified(eTag))
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache())
+					.build();
+
+		return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(
 				auditService.getAuditLogs(Optional.ofNullable(page).orElse(0), Optional.ofNullable(limit).orElse(5)));
 	}
 
+	/**
+	 * Searches the audit logs by the values of their fields for end point
+	 * ({@code /audit/search})
+	 * 
+	 * <p>
+	 * The query uses the Lucene syntax over all fields, e.g.
+	 * {@code q=card declined}, or over named fields, e.g.
+	 * {@code q=refNo:REF123 AND response:timeout}. Audits become searchable
+	 * shortly after they are persisted.
+	 * </p>
+	 * 
+	 * @param q     Full-text query
+	 * @param limit Maximum number of audits to return
+	 * 
+	 * @return List of {@code Audit} object in JSON, newest first
+	 * @throws AppException Thrown when the query is invalid
+	 */
+	@GetMapping("audit/search")
+	public ResponseEntity<List<AuditProjection>> search(@RequestParam String q,
+			@RequestParam(defaultValue = "20") int limit) throws AppException {
+		return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(searchService.search(q, limit));
+	}
+
 	/**
 	 * Fetches the audit logs for end point ({@code /audit})
 	 * 
@@ -87,4 +133,23 @@ public class AuditController {
 		return ResponseEntity.ok()
 				.body(auditService.refNoCount(audit.getRefNo(), LocalDateTime.parse(audit.getTill())));
 	}
+
+	/**
+	 * Fetches the reference numbers ingested most often over the recent window
+	 * for end point ({@code /heavy-hitters})
+	 * 
+	 * <p>
+	 * Counts are approximate: each is an upper bound of the true count, which is
+	 * at least {@code count - error}.
+	 * </p>
+	 * 
+	 * @param k Number of reference numbers to return
+	 * 
+	 * @return List of {@code HeavyHitter} object in JSON
+	 *         ({@code [{"refNo": "refNo", "count": 0, "error": 0}]})
+	 */
+	@GetMapping("heavy-hitters")
+	public ResponseEntity<List<HeavyHitter>> heavyHitters(@RequestParam(defaultValue = "10") int k) {
+		return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(auditService.heavyHitters(k));
+	}
 }
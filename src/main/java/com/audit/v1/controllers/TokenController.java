@@ -0,0 +1,94 @@
+package com.audit.v1.controllers;
+
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.audit.services.TokenService;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * The {@code TokenController} class handles HTTP requests to issue and revoke
+ * bearer tokens.
+ *
+ * <p>
+ * A client exchanges its credentials once, through HTTP Basic authentication,
+ * for a short-lived token on ({@code /token}) and presents the token as
+ * {@code Authorization: Bearer <token>} on subsequent requests. The token is
+ * revoked with a {@literal DELETE Request} on the same end point.
+ * </p>
+ *
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/web/bind/annotation/RestController.html">
+ *      RestController</a>
+ * @author Kabir Akware
+ */
+@RestController
+@RequestMapping("v1")
+@AllArgsConstructor
+public class TokenController {
+
+	/**
+	 * Prefix of the bearer {@code Authorization} header
+	 */
+	private static final String BEARER = "Bearer ";
+
+	/**
+	 * {@code TokenService} interface parameter
+	 */
+	private TokenService tokenService;
+
+	/**
+	 * Issues a bearer token for end point ({@code /token}). A token cannot be
+	 * exchanged for another one, so that its lifetime stays bounded.
+	 *
+	 * @param authentication {@link Authentication} verified by HTTP Basic
+	 *                       authentication
+	 * @param authorization  {@code Authorization} header of the request
+	 * @return Token in JSON ({@code {"access_token": "token", "token_type":
+	 *         "Bearer", "expires_in": 900}})
+	 */
+	@PostMapping("token")
+	public ResponseEntity<Map<String, Object>> issue(Authentication authentication,
+			@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+		if (isBearer(authorization))
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+
+		return ResponseEntity.ok().body(Map.of("access_token", tokenService.issue(authentication), "token_type",
+				"Bearer", "expires_in", tokenService.ttlSeconds()));
+	}
+
+	/**
+	 * Revokes the bearer token used for end point ({@code /token})
+	 *
+	 * @param authorization {@code Authorization} header carrying the bearer token
+	 * @return Empty response
+	 */
+	@DeleteMapping("token")
+	public ResponseEntity<Void> revoke(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+		if (isBearer(authorization))
+			tokenService.revoke(authorization.substring(BEARER.length()).trim());
+		return ResponseEntity.noContent().build();
+	}
+
+	/**
+	 * Method to check whether the {@code Authorization} header carries a bearer
+	 * token
+	 *
+	 * @param authorization {@code Authorization} header
+	 * @return {@code true} for a bearer token
+	 */
+	private static boolean isBearer(String authorization) {
+		return authorization.regionMatches(true, 0, BEARER, 0, BEARER.length());
+	}
+}
@@ -0,0 +1,81 @@
+package com.audit.v1.controllers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.audit.exception.AppException;
+import com.audit.projections.UserSummary;
+import com.audit.services.UserDetailService;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * The {@code UserController} class handles HTTP requests to list the users of
+ * the system.
+ *
+ * <p>
+ * It provides a keyset paged listing ({@code /users}) and a streamed listing
+ * ({@code /users/stream}) for {@literal GET Requests}. Neither of them exposes
+ * the password hashes of the users.
+ * </p>
+ *
+ *
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/web/bind/annotation/RestController.html">
+ *      RestController</a>
+ * @see <a href =
+ *      "https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/web/servlet/mvc/method/annotation/StreamingResponseBody.html">
+ *      StreamingResponseBody</a>
+ * @author Kabir Akware
+ */
+@RestController
+@RequestMapping("v1")
+@AllArgsConstructor
+public class UserController {
+
+	/**
+	 * {@code UserDetailService} interface parameter
+	 */
+	private UserDetailService userDetailService;
+
+	/**
+	 * Fetches a page of users for end point ({@code /users})
+	 *
+	 * @param after User name after which the page starts, taken from the last
+	 *              user of the previous page
+	 * @param limit Maximum number of users in the page
+	 * @return List of {@link UserSummary} in JSON
+	 * @throws AppException Thrown when a custom exception occurs
+	 */
+	@GetMapping("users")
+	public ResponseEntity<List<UserSummary>> users(@RequestParam(required = false) String after,
+			@RequestParam(required = false) Integer limit) throws AppException {
+		return ResponseEntity.ok().body(userDetailService.getUsers(after, Optional.ofNullable(limit).orElse(50)));
+	}
+
+	/**
+	 * Streams all users for end point ({@code /users/stream}) as a JSON array
+	 * written row by row
+	 *
+	 * @return {@link StreamingResponseBody} writing the users
+	 */
+	@GetMapping("users/stream")
+	public ResponseEntity<StreamingResponseBody> streamUsers() {
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> {
+			try {
+				userDetailService.streamUsers(out);
+			} catch (AppException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+		});
+	}
+}
@@ -0,0 +1,236 @@
+package com.audit.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.beans.PropertyDescriptor;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.BasicValuedModelPart;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.SqlTypes;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.audit.utility.PayloadCompressionConverter;
+import com.model.entity.Audit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Mapping test of the {@code META-INF/orm.xml} override applying
+ * {@link PayloadCompressionConverter} to the {@link Audit} entity, on an
+ * in-memory H2 data base.
+ *
+ * <p>
+ * The columns Hibernate maps the request and response bodies to with the
+ * override are compared with the ones it maps them to from the annotations of
+ * the entity alone, so the override is shown to keep the column name, length
+ * and LOB type of the model module. An audit with bodies as large as the
+ * columns allow is then stored and read back, and the stored bodies are checked
+ * to be compressed.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+class PayloadMappingTest {
+
+	/**
+	 * Overridden attributes of {@link Audit}
+	 */
+	private static final List<String> ATTRIBUTES = List.of("request", "response");
+
+	/**
+	 * Prefix of a compressed column value, see
+	 * {@link PayloadCompressionConverter}
+	 */
+	private static final String COMPRESSED = "\u0001Z";
+
+	/**
+	 * Shortest body compressed by default, see
+	 * {@code config.audit.compression.min-chars}
+	 */
+	private static final int MIN_COMPRESSED_CHARS = 512;
+
+	/**
+	 * Largest body stored in a LOB column
+	 */
+	private static final int LOB_BODY_CHARS = 64 * 1024;
+
+	/**
+	 * Context mapping {@link Audit} with {@code META-INF/orm.xml}
+	 */
+	private final ApplicationContextRunner overridden = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+					HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class))
+			.withUserConfiguration(PersistenceContext.class)
+			.withPropertyValues("spring.datasource.url=jdbc:h2:mem:payload_overridden;DB_CLOSE_DELAY=-1",
+					"spring.jpa.hibernate.ddl-auto=create-drop",
+					"spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true");
+
+	/**
+	 * Context mapping {@link Audit} with its annotations only
+	 */
+	private final ApplicationContextRunner annotated = overridden.withPropertyValues(
+			"spring.datasource.url=jdbc:h2:mem:payload_annotated;DB_CLOSE_DELAY=-1",
+			"spring.jpa.mapping-resources=META-INF/orm-annotations-only.xml");
+
+	@Test
+	void overrideKeepsAnnotatedColumns() {
+		Map<String, Column> expected = new HashMap<>();
+		annotated.run(context -> {
+			assertThat(context).hasNotFailed();
+			for (String attribute : ATTRIBUTES)
+				expected.put(attribute, column(context, attribute));
+		});
+
+		overridden.run(context -> {
+			assertThat(context).hasNotFailed();
+			for (String attribute : ATTRIBUTES)
+				assertThat(column(context, attribute)).as(attribute).isEqualTo(expected.get(attribute));
+		});
+	}
+
+	@Test
+	void bodiesRoundTripCompressed() {
+		overridden.run(context -> {
+			assertThat(context).hasNotFailed();
+			Column request = column(context, "request");
+			Column response = column(context, "response");
+
+			Audit audit = sample();
+			audit.setRequest(body(request));
+			audit.setResponse(body(response));
+			EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+			EntityManager writer = entityManagerFactory.createEntityManager();
+			writer.getTransaction().begin();
+			writer.persist(audit);
+			writer.getTransaction().commit();
+			writer.close();
+
+			EntityManager reader = entityManagerFactory.createEntityManager();
+			Audit stored = reader.find(Audit.class, audit.getId());
+			assertThat(stored.getRequest()).isEqualTo(audit.getRequest());
+			assertThat(stored.getResponse()).isEqualTo(audit.getResponse());
+			reader.close();
+
+			JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+			for (Column column : List.of(request, response))
+				if (body(column).length() >= MIN_COMPRESSED_CHARS)
+					assertThat(jdbc.queryForObject("select " + column.name() + " from " + column.table()
+							+ " where " + column.id() + " = ?", String.class, audit.getId())).startsWith(COMPRESSED);
+		});
+	}
+
+	/**
+	 * Method to read the column Hibernate maps an attribute of {@link Audit} to
+	 *
+	 * @param context   Application context
+	 * @param attribute Attribute name
+	 * @return Mapped {@link Column}
+	 */
+	private static Column column(AssertableApplicationContext context, String attribute) {
+		AbstractEntityPersister persister = (AbstractEntityPersister) context.getBean(EntityManagerFactory.class)
+				.unwrap(SessionFactoryImplementor.class).getMappingMetamodel().getEntityDescriptor(Audit.class);
+		BasicValuedModelPart part = (BasicValuedModelPart) persister.findAttributeMapping(attribute);
+		int type = part.getJdbcMapping().getJdbcType().getDefaultSqlTypeCode();
+		return new Column(persister.getTableName(), persister.getIdentifierColumnNames()[0],
+				part.getSelectionExpression(), part.getLength(),
+				Set.of(Types.CLOB, Types.NCLOB, SqlTypes.MATERIALIZED_CLOB, SqlTypes.MATERIALIZED_NCLOB)
+						.contains(type));
+	}
+
+	/**
+	 * Method to create a compressible JSON body filling the column
+	 *
+	 * @param column Column of the body
+	 * @return Body
+	 */
+	private static String body(Column column) {
+		int chars = column.lob() || Objects.isNull(column.length()) ? LOB_BODY_CHARS : column.length().intValue();
+		StringBuilder body = new StringBuilder("[");
+		for (int i = 0; body.length() < chars - 64; i++)
+			body.append("{\"key\":\"value-").append(i % 10).append("\",\"code\":\"S00\"},");
+		return body.append("{}]").toString();
+	}
+
+	/**
+	 * Method to create an audit with every writable property set, so the
+	 * constraints of the columns not under test are met
+	 *
+	 * @return New, unsaved {@link Audit}
+	 * @throws ReflectiveOperationException If a property cannot be set
+	 */
+	private static Audit sample() throws ReflectiveOperationException {
+		Audit audit = BeanUtils.instantiateClass(Audit.class);
+		for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(Audit.class)) {
+			if (Objects.isNull(property.getWriteMethod()) || "id".equals(property.getName()))
+				continue;
+			Class<?> type = property.getPropertyType();
+			Object value = null;
+			if (type == String.class)
+				value = "T";
+			else if (type == LocalDateTime.class)
+				value = LocalDateTime.now();
+			else if (type == LocalDate.class)
+				value = LocalDate.now();
+			else if (type == Instant.class)
+				value = Instant.now();
+			else if (type == Date.class)
+				value = new Date();
+			else if (type == Integer.class || type == int.class)
+				value = 0;
+			else if (type == Long.class || type == long.class)
+				value = 0L;
+			else if (type == Boolean.class || type == boolean.class)
+				value = false;
+			if (Objects.nonNull(value))
+				property.getWriteMethod().invoke(audit, value);
+		}
+		return audit;
+	}
+
+	/**
+	 * Column an attribute is mapped to
+	 *
+	 * @param table  Table of the entity
+	 * @param id     Identifier column of the entity
+	 * @param name   Column name
+	 * @param length Column length, {@code null} when it has none
+	 * @param lob    {@code true} if the column is a character LOB
+	 */
+	private record Column(String table, String id, String name, Long length, boolean lob) {
+	}
+
+	/**
+	 * Persistence context of the test: the data source, JPA with the audit
+	 * entities, the converter and the start up check of the override
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@EntityScan(basePackages = "com.model.entity")
+	@Import({ PayloadCompressionConverter.class, PayloadMappingVerifier.class })
+	static class PersistenceContext {
+	}
+}
@@ -0,0 +1,149 @@
+package com.audit.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Routing test of {@link DataSourceConfig} and
+ * {@link ReplicaRoutingDataSource} over two in-memory H2 data bases, one as
+ * the primary and one as the replica.
+ *
+ * <p>
+ * Every pool sets the {@code @POOL} session variable to its name when it
+ * opens a connection, so {@code SELECT @POOL} tells which pool served a
+ * statement; the replica pool is also checked to be connected to the replica
+ * data base.
+ * </p>
+ *
+ * @author Kabir Akware
+ */
+class ReplicaRoutingDataSourceTest {
+
+	/**
+	 * URL of the primary data base
+	 */
+	private static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1";
+
+	/**
+	 * URL of the replica data base
+	 */
+	private static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+
+	/**
+	 * Context with the primary data base only
+	 */
+	private final ApplicationContextRunner primaryOnly = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class))
+			.withUserConfiguration(DataSourceConfig.class)
+			.withPropertyValues("spring.datasource.url=" + PRIMARY_URL,
+					"spring.datasource.hikari.connection-init-sql=SET @POOL = 'ingest'",
+					"config.datasource.query.hikari.connection-init-sql=SET @POOL = 'query'");
+
+	/**
+	 * Context with the primary and the replica data bases
+	 */
+	private final ApplicationContextRunner withReplica = primaryOnly.withPropertyValues(
+			"config.datasource.replica.url=" + REPLICA_URL,
+			"config.datasource.replica.hikari.connection-init-sql=SET @POOL = 'replica'");
+
+	@Test
+	void statementsOutsideTransactionUseQueryPool() {
+		withReplica.run(context -> assertThat(pool(context)).isEqualTo("query"));
+	}
+
+	@Test
+	void readWriteTransactionUsesQueryPool() {
+		withReplica.run(context -> assertThat(inTransaction(context, false, () -> pool(context)))
+				.isEqualTo("query"));
+	}
+
+	@Test
+	void readOnlyTransactionUsesReplica() {
+		withReplica.run(context -> {
+			assertThat(inTransaction(context, true, () -> pool(context))).isEqualTo("replica");
+			assertThat(inTransaction(context, true, () -> url(context))).startsWith("jdbc:h2:mem:routing_replica");
+		});
+	}
+
+	@Test
+	void readOnlyTransactionFallsBackToQueryPoolWithoutReplica() {
+		primaryOnly.run(context -> {
+			assertThat(context).doesNotHaveBean("replicaDataSource");
+			assertThat(inTransaction(context, true, () -> pool(context))).isEqualTo("query");
+		});
+	}
+
+	@Test
+	void onPrimaryOverridesReadOnlyTransaction() {
+		withReplica.run(context -> assertThat(
+				inTransaction(context, true, () -> ReplicaRoutingDataSource.onPrimary(() -> pool(context))))
+				.isEqualTo("query"));
+	}
+
+	@Test
+	void ingestTaskUsesIngestPool() {
+		withReplica.run(context -> {
+			AtomicReference<String> outside = new AtomicReference<>();
+			AtomicReference<String> readOnly = new AtomicReference<>();
+			ReplicaRoutingDataSource.ingest(() -> {
+				outside.set(pool(context));
+				readOnly.set(inTransaction(context, true, () -> pool(context)));
+			}).run();
+
+			assertThat(outside).hasValue("ingest");
+			assertThat(readOnly).hasValue("ingest");
+			assertThat(pool(context)).isEqualTo("query");
+		});
+	}
+
+	/**
+	 * Method to run a unit of work in a transaction on the routing data source
+	 *
+	 * @param <T>      Type of the result
+	 * @param context  Application context
+	 * @param readOnly Whether the transaction is read-only
+	 * @param work     Unit of work
+	 * @return Result of the unit of work
+	 */
+	private static <T> T inTransaction(AssertableApplicationContext context, boolean readOnly, Supplier<T> work) {
+		TransactionTemplate transaction = new TransactionTemplate(
+				new DataSourceTransactionManager(context.getBean(DataSource.class)));
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(status -> work.get());
+	}
+
+	/**
+	 * Method to get the name of the pool serving the current statement
+	 *
+	 * @param context Application context
+	 * @return Pool name
+	 */
+	private static String pool(AssertableApplicationContext context) {
+		return new JdbcTemplate(context.getBean(DataSource.class)).queryForObject("SELECT @POOL", String.class);
+	}
+
+	/**
+	 * Method to get the URL of the data base serving the current statement
+	 *
+	 * @param context Application context
+	 * @return JDBC URL
+	 */
+	private static String url(AssertableApplicationContext context) {
+		return new JdbcTemplate(context.getBean(DataSource.class))
+				.execute((Connection connection) -> connection.getMetaData().getURL());
+	}
+}